@@ -0,0 +1,36 @@
+package com.example.home_inventory.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Punto de entrada de los benchmarks. Acepta los mismos argumentos que JMH (-p hogares=10, -wi, -i, ...)
+ * y, si no se indica otro formato, guarda los resultados en JSON en target/jmh-resultados.json para poder
+ * compararlos entre commits.
+ */
+public class EjecutorBenchmarks {
+
+    private static final String RESULTADOS_POR_DEFECTO = "target/jmh-resultados.json";
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions argumentos = new CommandLineOptions(args);
+
+        ChainedOptionsBuilder opciones = new OptionsBuilder().parent(argumentos);
+        if (argumentos.getIncludes().isEmpty()) {
+            opciones.include(EjecutorBenchmarks.class.getPackageName() + ".*Benchmark");
+        }
+        if (!argumentos.getResultFormat().hasValue()) {
+            opciones.resultFormat(ResultFormatType.JSON);
+        }
+        if (!argumentos.getResult().hasValue()) {
+            opciones.result(RESULTADOS_POR_DEFECTO);
+        }
+
+        new Runner(opciones.build()).run();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.home_inventory.benchmarks;
+
+import com.example.home_inventory.HomeInventoryApplication;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Arranca la aplicacion real sobre un Mongo de prueba y siembra los hogares de cada corrida.
+ * Por defecto usa mongo-java-server en memoria; con {@code -Dbenchmark.mongo.uri=mongodb://localhost:27017}
+ * apunta a un mongod local, que ademas crea todos los indices de los modelos.
+ */
+@State(Scope.Benchmark)
+public class EntornoInventario {
+
+    private static final String BASE_DE_DATOS = "inventario-benchmark";
+
+    @Param({"10", "1000", "100000"})
+    public int hogares;
+
+    private MongoServer servidor;
+    private ConfigurableApplicationContext contexto;
+    private List<GeneradorHogares.Hogar> datos;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        String uri = System.getProperty("benchmark.mongo.uri");
+        boolean mongoReal = uri != null && !uri.isBlank();
+        if (!mongoReal) {
+            servidor = new MongoServer(new MemoryBackend());
+            uri = servidor.bindAndGetConnectionString();
+        } else {
+            // Cada corrida empieza desde una base limpia
+            try (MongoClient cliente = MongoClients.create(uri)) {
+                cliente.getDatabase(BASE_DE_DATOS).drop();
+            }
+        }
+
+        contexto = new SpringApplicationBuilder(HomeInventoryApplication.class).run(
+                "--spring.data.mongodb.uri=" + uri,
+                "--spring.data.mongodb.database=" + BASE_DE_DATOS,
+                // El servidor en memoria no soporta indices parciales ni transacciones ni explain
+                "--spring.data.mongodb.auto-index-creation=" + mongoReal,
+                "--inventario.transacciones.habilitadas=false",
+                "--inventario.indices.verificar=false",
+                "--inventario.migracion.grupos.habilitada=false",
+                "--inventario.migracion.productos.habilitada=false",
+                "--inventario.migracion.listas.habilitada=false",
+                "--security.jwt.secret-key=benchmark-benchmark-benchmark-32b",
+                "--server.port=0",
+                "--management.server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework.security=WARN");
+
+        long semilla = Long.getLong("benchmark.semilla", 42L);
+        datos = new GeneradorHogares(contexto.getBean(MongoTemplate.class), semilla).generar(hogares);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        if (contexto != null) {
+            contexto.close();
+        }
+        if (servidor != null) {
+            servidor.shutdownNow();
+        }
+    }
+
+    public <T> T bean(Class<T> tipo) {
+        return contexto.getBean(tipo);
+    }
+
+    public GeneradorHogares.Hogar hogarAleatorio() {
+        return datos.get(ThreadLocalRandom.current().nextInt(datos.size()));
+    }
+
+    public String productoAleatorio() {
+        List<String> productoIds = hogarAleatorio().productoIds();
+        return productoIds.get(ThreadLocalRandom.current().nextInt(productoIds.size()));
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.home_inventory.benchmarks;
+
+import com.example.home_inventory.models.GrupoFamiliar;
+import com.example.home_inventory.models.Lugar;
+import com.example.home_inventory.models.Producto;
+import com.example.home_inventory.models.User;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Siembra hogares sinteticos reproducibles: con la misma semilla se generan los mismos grupos, lugares y
+ * productos, asi los resultados de dos commits se pueden comparar. Los documentos se insertan por lotes
+ * directamente con MongoTemplate, sin pasar por los servicios que se miden.
+ */
+public class GeneradorHogares {
+
+    public static final int MIEMBROS_POR_HOGAR = 3;
+    public static final int LUGARES_MAXIMOS = 4;
+    public static final int PRODUCTOS_MAXIMOS_POR_LUGAR = 8;
+
+    // Alta para que deleteProductoById siempre descuente una unidad y nunca borre el producto
+    public static final int CANTIDAD_INICIAL = 1_000_000;
+
+    private static final int HOGARES_POR_LOTE = 1000;
+
+    private static final List<String> NOMBRES_LUGARES = List.of(
+            "Cocina", "Despensa", "Refrigerador", "Baño", "Garaje", "Bodega", "Lavandería");
+
+    private static final List<String> NOMBRES_PRODUCTOS = List.of(
+            "Arroz", "Frijoles", "Leche", "Huevos", "Pasta", "Aceite", "Azúcar", "Sal", "Café", "Harina",
+            "Atún", "Jabón", "Detergente", "Papel higiénico", "Shampoo", "Cloro", "Galletas", "Cereal");
+
+    private final MongoTemplate mongoTemplate;
+    private final Random random;
+
+    public GeneradorHogares(MongoTemplate mongoTemplate, long semilla) {
+        this.mongoTemplate = mongoTemplate;
+        this.random = new Random(semilla);
+    }
+
+    public List<Hogar> generar(int cantidadHogares) {
+        List<Hogar> hogares = new ArrayList<>(cantidadHogares);
+        for (int inicio = 0; inicio < cantidadHogares; inicio += HOGARES_POR_LOTE) {
+            int fin = Math.min(inicio + HOGARES_POR_LOTE, cantidadHogares);
+            hogares.addAll(generarLote(inicio, fin));
+        }
+        return hogares;
+    }
+
+    private List<Hogar> generarLote(int inicio, int fin) {
+        List<User> usuarios = new ArrayList<>();
+        List<GrupoFamiliar> grupos = new ArrayList<>();
+        List<Lugar> lugares = new ArrayList<>();
+        List<Producto> productos = new ArrayList<>();
+        List<Hogar> hogares = new ArrayList<>();
+
+        for (int i = inicio; i < fin; i++) {
+            GrupoFamiliar grupo = new GrupoFamiliar();
+            grupo.setId(new ObjectId().toHexString());
+            grupo.setVersion(0L);
+            grupo.setNombre("hogar-" + i);
+            grupo.setDescripcion("Hogar sintetico " + i);
+            grupo.setFechaCreacion(LocalDateTime.now());
+
+            for (int m = 0; m < MIEMBROS_POR_HOGAR; m++) {
+                User usuario = usuario("usuario-" + i + "-" + m);
+                usuarios.add(usuario);
+                grupo.getMiembros().add(new GrupoFamiliar.MiembroInfo(
+                        usuario.getId(), usuario.getUsername(), usuario.getEmail()));
+            }
+            grupo.setCreadorId(grupo.getMiembros().get(0).getId());
+
+            // Usuario sin grupo que los benchmarks agregan y quitan del hogar
+            User invitado = usuario("invitado-" + i);
+            usuarios.add(invitado);
+
+            List<String> productoIds = new ArrayList<>();
+            int cantidadLugares = 1 + random.nextInt(LUGARES_MAXIMOS);
+            for (int l = 0; l < cantidadLugares; l++) {
+                Lugar lugar = new Lugar();
+                lugar.setId(new ObjectId().toHexString());
+                lugar.setVersion(0L);
+                lugar.setNombre(NOMBRES_LUGARES.get(random.nextInt(NOMBRES_LUGARES.size())));
+                lugar.setGrupoFamiliarId(grupo.getId());
+                lugar.setCreadoPor(grupo.getCreadorId());
+                lugar.setFechaCreacion(LocalDateTime.now());
+
+                int cantidadProductos = 1 + random.nextInt(PRODUCTOS_MAXIMOS_POR_LUGAR);
+                for (int p = 0; p < cantidadProductos; p++) {
+                    Producto producto = producto(lugar.getId(), grupo.getId());
+                    productos.add(producto);
+                    lugar.getProductos().add(producto);
+                    productoIds.add(producto.getId());
+                }
+                lugares.add(lugar);
+                grupo.getLugarIds().add(lugar.getId());
+            }
+
+            grupos.add(grupo);
+            hogares.add(new Hogar(grupo.getId(), grupo.getCreadorId(), invitado.getUsername(), productoIds));
+        }
+
+        insertar(usuarios, User.class);
+        insertar(grupos, GrupoFamiliar.class);
+        insertar(lugares, Lugar.class);
+        insertar(productos, Producto.class);
+        return hogares;
+    }
+
+    private User usuario(String username) {
+        User usuario = new User(username);
+        usuario.setId(new ObjectId().toHexString());
+        usuario.setEmail(username + "@example.com");
+        usuario.setPassword("{noop}benchmark");
+        usuario.getRole().add("USER");
+        return usuario;
+    }
+
+    private Producto producto(String lugarId, String grupoFamiliarId) {
+        Producto producto = new Producto();
+        producto.setId(new ObjectId().toHexString());
+        producto.setNombre(NOMBRES_PRODUCTOS.get(random.nextInt(NOMBRES_PRODUCTOS.size())));
+        producto.setCantidad(CANTIDAD_INICIAL);
+        producto.setCantidadMinima(random.nextInt(5));
+        producto.setExpiracion(LocalDate.now().plusDays(30 + random.nextInt(365)));
+        producto.setLugarId(lugarId);
+        producto.setGrupoFamiliarId(grupoFamiliarId);
+        return producto;
+    }
+
+    private void insertar(List<?> documentos, Class<?> tipo) {
+        if (!documentos.isEmpty()) {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, tipo).insert(documentos).execute();
+        }
+    }
+
+    /**
+     * Lo que los benchmarks necesitan de cada hogar sembrado.
+     */
+    public record Hogar(String grupoFamiliarId, String creadorId, String usernameInvitado, List<String> productoIds) {
+    }
+}
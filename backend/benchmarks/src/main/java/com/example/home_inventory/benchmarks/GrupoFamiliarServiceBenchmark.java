@@ -0,0 +1,33 @@
+package com.example.home_inventory.benchmarks;
+
+import com.example.home_inventory.services.GrupoFamiliarService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Un usuario solo puede pertenecer a un grupo, asi que cada invocacion agrega al invitado del hogar y lo
+ * vuelve a quitar; el tiempo medido es el de ambas operaciones.
+ */
+@State(Scope.Thread)
+public class GrupoFamiliarServiceBenchmark extends BenchmarkBase {
+
+    private GrupoFamiliarService grupoFamiliarService;
+
+    @Setup(Level.Trial)
+    public void preparar(EntornoInventario entorno) {
+        grupoFamiliarService = entorno.bean(GrupoFamiliarService.class);
+    }
+
+    @Benchmark
+    public void agregarMiembro(EntornoInventario entorno, Blackhole blackhole) {
+        GeneradorHogares.Hogar hogar = entorno.hogarAleatorio();
+        blackhole.consume(grupoFamiliarService.agregarMiembro(
+                hogar.grupoFamiliarId(), hogar.usernameInvitado(), hogar.creadorId()));
+        blackhole.consume(grupoFamiliarService.eliminarMiembro(
+                hogar.grupoFamiliarId(), hogar.usernameInvitado(), hogar.creadorId()));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.home_inventory.benchmarks;
+
+import com.example.home_inventory.models.GrupoFamiliar;
+import com.example.home_inventory.models.Lugar;
+import com.example.home_inventory.services.LugarService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Crea lugares en hogares al azar. Al final de cada iteracion se borran los lugares creados para que los
+ * grupos no acumulen referencias entre iteraciones.
+ */
+@State(Scope.Thread)
+public class LugarServiceBenchmark extends BenchmarkBase {
+
+    private LugarService lugarService;
+    private MongoTemplate mongoTemplate;
+    private final List<String> creados = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void preparar(EntornoInventario entorno) {
+        lugarService = entorno.bean(LugarService.class);
+        mongoTemplate = entorno.bean(MongoTemplate.class);
+    }
+
+    @Benchmark
+    public Lugar crearLugar(EntornoInventario entorno) {
+        GeneradorHogares.Hogar hogar = entorno.hogarAleatorio();
+        Lugar lugar = lugarService.crearLugar("Lugar benchmark", null, hogar.grupoFamiliarId(), hogar.creadorId());
+        creados.add(lugar.getId());
+        return lugar;
+    }
+
+    @TearDown(Level.Iteration)
+    public void limpiar() {
+        if (creados.isEmpty()) {
+            return;
+        }
+        mongoTemplate.remove(new Query(Criteria.where("id").in(creados)), Lugar.class);
+        mongoTemplate.updateMulti(new Query(Criteria.where("lugarIds").in(creados)),
+                new Update().pullAll("lugarIds", creados.toArray()), GrupoFamiliar.class);
+        creados.clear();
+    }
+}
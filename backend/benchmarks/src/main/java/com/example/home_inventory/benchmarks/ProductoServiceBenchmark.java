@@ -0,0 +1,28 @@
+package com.example.home_inventory.benchmarks;
+
+import com.example.home_inventory.services.ProductoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Descuenta una unidad de un producto al azar. La cantidad sembrada es alta, asi que el producto nunca
+ * se borra y cada invocacion recorre el mismo camino: leer, guardar, registrar en el outbox y publicar el evento.
+ */
+@State(Scope.Thread)
+public class ProductoServiceBenchmark extends BenchmarkBase {
+
+    private ProductoService productoService;
+
+    @Setup(Level.Trial)
+    public void preparar(EntornoInventario entorno) {
+        productoService = entorno.bean(ProductoService.class);
+    }
+
+    @Benchmark
+    public boolean deleteProductoById(EntornoInventario entorno) {
+        return productoService.deleteProductoById(entorno.productoAleatorio());
+    }
+}
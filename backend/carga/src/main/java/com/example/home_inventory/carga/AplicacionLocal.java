@@ -0,0 +1,45 @@
+package com.example.home_inventory.carga;
+
+import com.example.home_inventory.HomeInventoryApplication;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * La aplicacion real escuchando en un puerto libre, sobre mongo-java-server en memoria, para correr la carga
+ * sin red ni credenciales de Atlas.
+ */
+public class AplicacionLocal implements AutoCloseable {
+
+    private final MongoServer servidor;
+    private final ConfigurableApplicationContext contexto;
+
+    public AplicacionLocal() {
+        servidor = new MongoServer(new MemoryBackend());
+        String uri = servidor.bindAndGetConnectionString();
+        contexto = new SpringApplicationBuilder(HomeInventoryApplication.class).run(
+                "--spring.data.mongodb.uri=" + uri,
+                "--spring.data.mongodb.database=inventario-carga",
+                // El servidor en memoria no soporta indices parciales ni transacciones ni explain
+                "--spring.data.mongodb.auto-index-creation=false",
+                "--inventario.transacciones.habilitadas=false",
+                "--inventario.indices.verificar=false",
+                "--security.jwt.secret-key=carga-carga-carga-carga-carga-32b",
+                "--server.port=0",
+                "--management.server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework.security=WARN");
+    }
+
+    public String getUrl() {
+        return "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port");
+    }
+
+    @Override
+    public void close() {
+        contexto.close();
+        servidor.shutdownNow();
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.home_inventory.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Genera hogares sinteticos y reproduce trafico REST mixto contra la API durante un tiempo fijo, con un hilo
+ * virtual por usuario concurrente en lazo cerrado. Reporta exitosas, errores, operaciones por segundo y
+ * latencias p50/p99 por operacion; las muestras del calentamiento se descartan.
+ *
+ * <pre>
+ * mvn compile exec:java -Dexec.args="--hogares=50 --concurrencia=32 --duracion-s=120 --proporcion-lectura=0.9"
+ * </pre>
+ */
+public class ArnesCarga {
+
+    private static final Logger log = LoggerFactory.getLogger(ArnesCarga.class);
+
+    private static final int ERRORES_A_MOSTRAR = 10;
+
+    public static void main(String[] args) throws Exception {
+        ConfiguracionCarga configuracion = ConfiguracionCarga.desdeArgumentos(args);
+
+        AplicacionLocal local = null;
+        String url = configuracion.url();
+        if (url == null || url.isBlank()) {
+            log.info("Levantando la aplicación sobre Mongo en memoria");
+            local = new AplicacionLocal();
+            url = local.getUrl();
+        }
+
+        try {
+            ClienteInventario cliente = new ClienteInventario(url);
+            GeneradorHogares generador = new GeneradorHogares(cliente, configuracion.semilla());
+
+            long inicio = System.nanoTime();
+            List<Hogar> hogares = generador.generar(configuracion.hogares(), configuracion.concurrencia());
+            log.info("Generados {} hogares en {} ms", hogares.size(), (System.nanoTime() - inicio) / 1_000_000);
+
+            Estadisticas estadisticas = ejecutar(configuracion, cliente, generador, hogares);
+            List<Estadisticas.ResumenOperacion> resumen = estadisticas.resumir(configuracion.duracion());
+            imprimir(configuracion, resumen);
+
+            if (configuracion.salida() != null) {
+                escribirJson(configuracion, resumen, new File(configuracion.salida()));
+            }
+        } finally {
+            if (local != null) {
+                local.close();
+            }
+        }
+    }
+
+    private static Estadisticas ejecutar(ConfiguracionCarga configuracion, ClienteInventario cliente,
+                                         GeneradorHogares generador, List<Hogar> hogares) throws Exception {
+        long inicioMedicion = System.nanoTime() + configuracion.calentamiento().toNanos();
+        long fin = inicioMedicion + configuracion.duracion().toNanos();
+        AtomicInteger erroresMostrados = new AtomicInteger();
+
+        List<Future<Estadisticas>> trabajadores = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int t = 0; t < configuracion.concurrencia(); t++) {
+                Random random = new Random(configuracion.semilla() * 31 + t);
+                trabajadores.add(executor.submit(() -> {
+                    Estadisticas propias = new Estadisticas();
+                    long ahora;
+                    while ((ahora = System.nanoTime()) < fin) {
+                        Hogar hogar = hogares.get(random.nextInt(hogares.size()));
+                        Operacion operacion = Operacion.elegir(configuracion.proporcionLectura(), random);
+                        boolean medir = ahora >= inicioMedicion;
+                        try {
+                            boolean ejecutada = operacion.ejecutar(new Operacion.Contexto(
+                                    cliente, generador, hogar, hogar.miembroAleatorio(random), random));
+                            if (ejecutada && medir) {
+                                propias.registrar(operacion, System.nanoTime() - ahora);
+                            }
+                        } catch (RuntimeException e) {
+                            if (medir) {
+                                propias.registrarError(operacion);
+                            }
+                            if (erroresMostrados.incrementAndGet() <= ERRORES_A_MOSTRAR) {
+                                log.warn("{} falló: {}", operacion, e.getMessage());
+                            }
+                        }
+                    }
+                    return propias;
+                }));
+            }
+
+            List<Estadisticas> parciales = new ArrayList<>();
+            for (Future<Estadisticas> trabajador : trabajadores) {
+                parciales.add(trabajador.get());
+            }
+            return Estadisticas.combinar(parciales);
+        }
+    }
+
+    private static void imprimir(ConfiguracionCarga configuracion, List<Estadisticas.ResumenOperacion> resumen) {
+        System.out.printf("%nHogares: %d, concurrencia: %d, lecturas: %.0f%%, duración medida: %d s%n",
+                configuracion.hogares(), configuracion.concurrencia(), configuracion.proporcionLectura() * 100,
+                configuracion.duracion().toSeconds());
+        System.out.printf("%-26s %-10s %10s %8s %10s %10s %10s %10s%n",
+                "operacion", "tipo", "exitosas", "errores", "op/s", "p50 ms", "p99 ms", "max ms");
+        for (Estadisticas.ResumenOperacion fila : resumen) {
+            System.out.printf("%-26s %-10s %10d %8d %10.1f %10.2f %10.2f %10.2f%n",
+                    fila.operacion(), fila.tipo(), fila.exitosas(), fila.errores(), fila.porSegundo(),
+                    fila.p50Ms(), fila.p99Ms(), fila.maximoMs());
+        }
+    }
+
+    private static void escribirJson(ConfiguracionCarga configuracion, List<Estadisticas.ResumenOperacion> resumen,
+                                     File archivo) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        objectMapper.findAndRegisterModules();
+        objectMapper.writeValue(archivo, new ReporteCarga(configuracion.hogares(), configuracion.concurrencia(),
+                configuracion.proporcionLectura(), configuracion.duracion(), resumen));
+        log.info("Reporte escrito en {}", archivo.getAbsolutePath());
+    }
+
+    record ReporteCarga(int hogares, int concurrencia, double proporcionLectura, Duration duracion,
+                                List<Estadisticas.ResumenOperacion> operaciones) {
+    }
+}
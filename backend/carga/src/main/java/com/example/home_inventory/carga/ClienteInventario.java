@@ -0,0 +1,101 @@
+package com.example.home_inventory.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Cliente HTTP minimo de la API. Cualquier respuesta que no sea 2xx se lanza como excepcion para que el
+ * arnes la cuente como error de la operacion.
+ */
+public class ClienteInventario {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String urlBase;
+
+    public ClienteInventario(String urlBase) {
+        this.urlBase = urlBase.endsWith("/") ? urlBase.substring(0, urlBase.length() - 1) : urlBase;
+    }
+
+    public JsonNode get(String ruta, String token) {
+        return enviar(peticion(ruta, token).GET());
+    }
+
+    public JsonNode post(String ruta, String token, Object cuerpo) {
+        return enviar(peticion(ruta, token).POST(json(cuerpo)));
+    }
+
+    public JsonNode patch(String ruta, String token, Object cuerpo) {
+        return enviar(peticion(ruta, token).method("PATCH", json(cuerpo)));
+    }
+
+    public JsonNode delete(String ruta, String token) {
+        return enviar(peticion(ruta, token).DELETE());
+    }
+
+    public JsonNode registrar(String username, String email, String password) {
+        String ruta = "/api/v1/user/signup?username=" + codificar(username)
+                + "&email=" + codificar(email) + "&password=" + codificar(password);
+        return enviar(peticion(ruta, null).POST(HttpRequest.BodyPublishers.noBody()));
+    }
+
+    private HttpRequest.Builder peticion(String ruta, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(urlBase + ruta))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json");
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private HttpRequest.BodyPublisher json(Object cuerpo) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(cuerpo));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("No se pudo serializar el cuerpo", e);
+        }
+    }
+
+    private JsonNode enviar(HttpRequest.Builder builder) {
+        HttpRequest request = builder.build();
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() / 100 != 2) {
+                throw new RuntimeException(request.method() + " " + request.uri().getPath()
+                        + " respondió " + response.statusCode());
+            }
+            byte[] cuerpo = response.body();
+            if (cuerpo.length == 0) {
+                return objectMapper.nullNode();
+            }
+            // Algunos endpoints responden texto plano (por ejemplo el id del grupo)
+            try {
+                return objectMapper.readTree(cuerpo);
+            } catch (IOException e) {
+                return objectMapper.getNodeFactory().textNode(new String(cuerpo, StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(request.method() + " " + request.uri().getPath() + " falló: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Petición interrumpida", e);
+        }
+    }
+
+    private static String codificar(String valor) {
+        return URLEncoder.encode(valor, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.home_inventory.carga;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parametros de una corrida, leidos de argumentos {@code --clave=valor}. Sin {@code --url} el arnes levanta
+ * la aplicacion localmente sobre Mongo en memoria.
+ */
+public record ConfiguracionCarga(
+        String url,
+        int hogares,
+        int concurrencia,
+        Duration calentamiento,
+        Duration duracion,
+        double proporcionLectura,
+        long semilla,
+        String salida) {
+
+    public static ConfiguracionCarga desdeArgumentos(String[] args) {
+        Map<String, String> valores = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Argumento inválido: " + arg + " (se espera --clave=valor)");
+            }
+            int separador = arg.indexOf('=');
+            valores.put(arg.substring(2, separador), arg.substring(separador + 1));
+        }
+
+        double proporcionLectura = Double.parseDouble(valores.getOrDefault("proporcion-lectura", "0.8"));
+        if (proporcionLectura < 0 || proporcionLectura > 1) {
+            throw new IllegalArgumentException("La proporción de lecturas debe estar entre 0 y 1");
+        }
+        int hogares = Integer.parseInt(valores.getOrDefault("hogares", "20"));
+        int concurrencia = Integer.parseInt(valores.getOrDefault("concurrencia", "16"));
+        if (hogares < 1 || concurrencia < 1) {
+            throw new IllegalArgumentException("Los hogares y la concurrencia deben ser mayores a 0");
+        }
+
+        return new ConfiguracionCarga(
+                valores.get("url"),
+                hogares,
+                concurrencia,
+                Duration.ofSeconds(Long.parseLong(valores.getOrDefault("calentamiento-s", "10"))),
+                Duration.ofSeconds(Long.parseLong(valores.getOrDefault("duracion-s", "60"))),
+                proporcionLectura,
+                Long.parseLong(valores.getOrDefault("semilla", "42")),
+                valores.get("salida"));
+    }
+}
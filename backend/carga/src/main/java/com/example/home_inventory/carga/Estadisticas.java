@@ -0,0 +1,94 @@
+package com.example.home_inventory.carga;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Latencias en nanosegundos y errores por operacion. Cada hilo de carga tiene la suya y al final se combinan,
+ * asi registrar una muestra no necesita sincronizacion.
+ */
+public class Estadisticas {
+
+    private final Map<Operacion, Muestras> porOperacion = new EnumMap<>(Operacion.class);
+
+    public void registrar(Operacion operacion, long nanos) {
+        porOperacion.computeIfAbsent(operacion, o -> new Muestras()).agregar(nanos);
+    }
+
+    public void registrarError(Operacion operacion) {
+        porOperacion.computeIfAbsent(operacion, o -> new Muestras()).errores++;
+    }
+
+    public static Estadisticas combinar(List<Estadisticas> parciales) {
+        Estadisticas total = new Estadisticas();
+        for (Estadisticas parcial : parciales) {
+            parcial.porOperacion.forEach((operacion, muestras) ->
+                    total.porOperacion.computeIfAbsent(operacion, o -> new Muestras()).agregarTodas(muestras));
+        }
+        return total;
+    }
+
+    public List<ResumenOperacion> resumir(Duration duracion) {
+        List<ResumenOperacion> resumen = new ArrayList<>();
+        Muestras todas = new Muestras();
+        porOperacion.forEach((operacion, muestras) -> {
+            resumen.add(muestras.resumir(operacion.name(), operacion.esLectura() ? "lectura" : "escritura", duracion));
+            todas.agregarTodas(muestras);
+        });
+        resumen.add(todas.resumir("TOTAL", "-", duracion));
+        return resumen;
+    }
+
+    public record ResumenOperacion(String operacion, String tipo, long exitosas, long errores,
+                                   double porSegundo, double p50Ms, double p99Ms, double maximoMs) {
+    }
+
+    private static class Muestras {
+
+        private long[] latencias = new long[1024];
+        private int cantidad;
+        private long errores;
+
+        void agregar(long nanos) {
+            if (cantidad == latencias.length) {
+                latencias = Arrays.copyOf(latencias, cantidad * 2);
+            }
+            latencias[cantidad++] = nanos;
+        }
+
+        void agregarTodas(Muestras otras) {
+            for (int i = 0; i < otras.cantidad; i++) {
+                agregar(otras.latencias[i]);
+            }
+            errores += otras.errores;
+        }
+
+        ResumenOperacion resumir(String operacion, String tipo, Duration duracion) {
+            long[] ordenadas = Arrays.copyOf(latencias, cantidad);
+            Arrays.sort(ordenadas);
+            double segundos = duracion.toNanos() / 1e9;
+            return new ResumenOperacion(operacion, tipo, cantidad, errores,
+                    cantidad / segundos,
+                    milisegundos(percentil(ordenadas, 0.50)),
+                    milisegundos(percentil(ordenadas, 0.99)),
+                    milisegundos(cantidad == 0 ? 0 : ordenadas[cantidad - 1]));
+        }
+
+        // Percentil por rango mas cercano
+        private static long percentil(long[] ordenadas, double p) {
+            if (ordenadas.length == 0) {
+                return 0;
+            }
+            int indice = (int) Math.ceil(p * ordenadas.length) - 1;
+            return ordenadas[Math.max(0, indice)];
+        }
+
+        private static double milisegundos(long nanos) {
+            return Math.round(nanos / 1e4) / 100.0;
+        }
+    }
+}
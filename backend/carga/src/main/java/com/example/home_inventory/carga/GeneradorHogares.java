@@ -0,0 +1,177 @@
+package com.example.home_inventory.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Construye hogares realistas usando la misma API que el frontend: registra a los miembros, crea el grupo,
+ * sus lugares con productos (con y sin fecha de expiracion, algunos por vencer) y sus listas de compra.
+ * Cada hogar usa su propio generador derivado de la semilla, asi que la forma de los datos es reproducible.
+ */
+public class GeneradorHogares {
+
+    public static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    static final List<String> NOMBRES_LUGARES = List.of(
+            "Cocina", "Despensa", "Refrigerador", "Congelador", "Baño", "Garaje", "Bodega", "Lavandería");
+
+    static final List<String> NOMBRES_PRODUCTOS = List.of(
+            "Arroz", "Frijoles", "Leche", "Huevos", "Pasta", "Aceite", "Azúcar", "Sal", "Café", "Harina",
+            "Atún", "Jabón", "Detergente", "Papel higiénico", "Shampoo", "Cloro", "Galletas", "Cereal",
+            "Yogur", "Queso", "Tortillas", "Salsa de tomate", "Lentejas", "Avena");
+
+    static final List<String> UNIDADES = List.of("unidades", "kg", "g", "l", "paquetes");
+
+    private static final String PASSWORD = "Carga-123456";
+
+    private final ClienteInventario cliente;
+    private final long semilla;
+    // Evita choques de nombres de usuario y grupo al correr varias veces contra la misma base
+    private final String corrida = Long.toString(System.currentTimeMillis(), 36);
+
+    public GeneradorHogares(ClienteInventario cliente, long semilla) {
+        this.cliente = cliente;
+        this.semilla = semilla;
+    }
+
+    public List<Hogar> generar(int cantidad, int concurrencia) throws InterruptedException {
+        Semaphore permisos = new Semaphore(concurrencia);
+        List<Future<Hogar>> pendientes = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < cantidad; i++) {
+                int numero = i;
+                pendientes.add(executor.submit(() -> {
+                    permisos.acquire();
+                    try {
+                        return generarHogar(numero, new Random(semilla + numero));
+                    } finally {
+                        permisos.release();
+                    }
+                }));
+            }
+
+            List<Hogar> hogares = new ArrayList<>(cantidad);
+            for (Future<Hogar> pendiente : pendientes) {
+                try {
+                    hogares.add(pendiente.get());
+                } catch (ExecutionException e) {
+                    throw new RuntimeException("No se pudo generar un hogar: " + e.getCause().getMessage(), e.getCause());
+                }
+            }
+            return hogares;
+        }
+    }
+
+    private Hogar generarHogar(int numero, Random random) {
+        // La mayoria de los hogares tiene entre 2 y 4 miembros
+        int cantidadMiembros = 1 + Math.min(4, (int) Math.round(Math.abs(random.nextGaussian() * 1.2 + 1.5)));
+        List<Hogar.Miembro> miembros = new ArrayList<>();
+        for (int m = 0; m < cantidadMiembros; m++) {
+            String username = "carga-" + corrida + "-" + numero + "-" + m;
+            JsonNode usuario = cliente.registrar(username, username + "@example.com", PASSWORD);
+            JsonNode login = cliente.post("/api/v1/user/signin", null, Map.of("username", username, "password", PASSWORD));
+            miembros.add(new Hogar.Miembro(usuario.path("id").asText(), username, login.path("token").asText()));
+        }
+
+        Hogar.Miembro creador = miembros.get(0);
+        JsonNode grupo = cliente.post("/api/v1/grupos-familiares", creador.token(), Map.of(
+                "nombre", "hogar-" + corrida + "-" + numero,
+                "descripcion", "Hogar sintético " + numero));
+        String grupoId = grupo.path("id").asText();
+        for (Hogar.Miembro miembro : miembros.subList(1, miembros.size())) {
+            cliente.post("/api/v1/grupos-familiares/" + grupoId + "/miembros", creador.token(),
+                    Map.of("username", miembro.username()));
+        }
+
+        Hogar hogar = new Hogar(grupoId, miembros);
+        int cantidadLugares = 2 + random.nextInt(5);
+        for (int l = 0; l < cantidadLugares; l++) {
+            Hogar.Miembro autor = hogar.miembroAleatorio(random);
+            String lugarId = crearLugar(hogar, autor, random);
+            int cantidadProductos = 3 + random.nextInt(13);
+            for (int p = 0; p < cantidadProductos; p++) {
+                crearProducto(hogar, autor, lugarId, random);
+            }
+        }
+
+        int cantidadListas = 1 + random.nextInt(3);
+        for (int l = 0; l < cantidadListas; l++) {
+            crearLista(hogar, hogar.miembroAleatorio(random), random);
+        }
+        return hogar;
+    }
+
+    String crearLugar(Hogar hogar, Hogar.Miembro autor, Random random) {
+        Map<String, String> cuerpo = new HashMap<>();
+        cuerpo.put("nombre", NOMBRES_LUGARES.get(random.nextInt(NOMBRES_LUGARES.size())));
+        cuerpo.put("descripcion", "Generado por el arnés de carga");
+        cuerpo.put("grupoFamiliarId", hogar.getGrupoFamiliarId());
+        cuerpo.put("userId", autor.id());
+        String lugarId = cliente.post("/api/v1/lugares", autor.token(), cuerpo).path("id").asText();
+        hogar.agregarLugar(lugarId);
+        return lugarId;
+    }
+
+    void crearProducto(Hogar hogar, Hogar.Miembro autor, String lugarId, Random random) {
+        int cantidad = 1 + random.nextInt(40);
+        Map<String, String> cuerpo = new HashMap<>();
+        cuerpo.put("nombre", NOMBRES_PRODUCTOS.get(random.nextInt(NOMBRES_PRODUCTOS.size())));
+        cuerpo.put("cantidad", String.valueOf(cantidad));
+        cuerpo.put("cantidadMinima", String.valueOf(random.nextInt(Math.min(cantidad, 5) + 1)));
+        LocalDate expiracion = expiracionAleatoria(random);
+        if (expiracion != null) {
+            cuerpo.put("expiracion", expiracion.format(FORMATO_FECHA));
+        }
+        String productoId = cliente.post("/api/v1/productos/lugares/" + lugarId, autor.token(), cuerpo)
+                .path("id").asText();
+        hogar.agregarProducto(productoId, cantidad);
+    }
+
+    private void crearLista(Hogar hogar, Hogar.Miembro autor, Random random) {
+        List<Map<String, Object>> elementos = new ArrayList<>();
+        int cantidadElementos = 3 + random.nextInt(10);
+        for (int e = 0; e < cantidadElementos; e++) {
+            elementos.add(elementoLista(random));
+        }
+        JsonNode lista = cliente.post("/api/v1/listas-compra", autor.token(), Map.of(
+                "nombre", "Compras " + (1 + random.nextInt(52)),
+                "descripcion", "Generada por el arnés de carga",
+                "productosLista", elementos));
+
+        List<String> elementoIds = new ArrayList<>();
+        lista.path("productosLista").forEach(elemento -> elementoIds.add(elemento.path("id").asText()));
+        hogar.agregarLista(lista.path("id").asText(), elementoIds);
+    }
+
+    static Map<String, Object> elementoLista(Random random) {
+        return Map.of(
+                "nombre", NOMBRES_PRODUCTOS.get(random.nextInt(NOMBRES_PRODUCTOS.size())),
+                "cantidad", String.valueOf(1 + random.nextInt(6)),
+                "unidad", UNIDADES.get(random.nextInt(UNIDADES.size())),
+                "comprado", false);
+    }
+
+    // 20% sin fecha, 15% por vencer en la proxima semana y el resto dentro del proximo año
+    private static LocalDate expiracionAleatoria(Random random) {
+        double tipo = random.nextDouble();
+        if (tipo < 0.2) {
+            return null;
+        }
+        if (tipo < 0.35) {
+            return LocalDate.now().plusDays(random.nextInt(8));
+        }
+        return LocalDate.now().plusDays(8 + random.nextInt(358));
+    }
+}
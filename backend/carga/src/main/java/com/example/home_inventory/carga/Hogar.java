@@ -0,0 +1,96 @@
+package com.example.home_inventory.carga;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Estado de un hogar creado por el generador que comparten los hilos de carga: sus miembros con su token
+ * y los ids de lugares, productos y elementos de listas que las operaciones usan como destino.
+ */
+public class Hogar {
+
+    private final String grupoFamiliarId;
+    private final List<Miembro> miembros;
+    private final List<String> lugarIds = new CopyOnWriteArrayList<>();
+    private final List<String> listaIds = new CopyOnWriteArrayList<>();
+    private final Map<String, List<String>> elementosPorLista = new ConcurrentHashMap<>();
+
+    // Unidades restantes de cada producto; al llegar a cero el servidor lo borra y deja de ser un destino
+    private final Map<String, AtomicInteger> unidadesPorProducto = new ConcurrentHashMap<>();
+    private final List<String> productoIds = new CopyOnWriteArrayList<>();
+
+    public Hogar(String grupoFamiliarId, List<Miembro> miembros) {
+        this.grupoFamiliarId = grupoFamiliarId;
+        this.miembros = List.copyOf(miembros);
+    }
+
+    public String getGrupoFamiliarId() {
+        return grupoFamiliarId;
+    }
+
+    public Miembro miembroAleatorio(Random random) {
+        return miembros.get(random.nextInt(miembros.size()));
+    }
+
+    public void agregarLugar(String lugarId) {
+        lugarIds.add(lugarId);
+    }
+
+    public Optional<String> lugarAleatorio(Random random) {
+        return aleatorio(lugarIds, random);
+    }
+
+    public void agregarProducto(String productoId, int unidades) {
+        unidadesPorProducto.put(productoId, new AtomicInteger(unidades));
+        productoIds.add(productoId);
+    }
+
+    /**
+     * Reserva una unidad de un producto al azar, o nada si el hogar se quedo sin productos.
+     */
+    public Optional<String> consumirProductoAleatorio(Random random) {
+        Optional<String> productoId = aleatorio(productoIds, random);
+        productoId.ifPresent(id -> {
+            AtomicInteger unidades = unidadesPorProducto.get(id);
+            if (unidades == null || unidades.decrementAndGet() <= 0) {
+                productoIds.remove(id);
+                unidadesPorProducto.remove(id);
+            }
+        });
+        return productoId;
+    }
+
+    public void agregarLista(String listaId, List<String> elementoIds) {
+        elementosPorLista.put(listaId, new CopyOnWriteArrayList<>(elementoIds));
+        listaIds.add(listaId);
+    }
+
+    public void agregarElemento(String listaId, String elementoId) {
+        elementosPorLista.computeIfAbsent(listaId, id -> new CopyOnWriteArrayList<>()).add(elementoId);
+    }
+
+    public Optional<String> listaAleatoria(Random random) {
+        return aleatorio(listaIds, random);
+    }
+
+    public Optional<String> elementoAleatorio(String listaId, Random random) {
+        return aleatorio(elementosPorLista.getOrDefault(listaId, List.of()), random);
+    }
+
+    private static Optional<String> aleatorio(List<String> ids, Random random) {
+        // La lista puede cambiar entre el size y el get si otro hilo la modifica
+        try {
+            return ids.isEmpty() ? Optional.empty() : Optional.of(ids.get(random.nextInt(ids.size())));
+        } catch (IndexOutOfBoundsException e) {
+            return Optional.empty();
+        }
+    }
+
+    public record Miembro(String id, String username, String token) {
+    }
+}
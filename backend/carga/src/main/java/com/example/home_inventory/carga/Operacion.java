@@ -0,0 +1,150 @@
+package com.example.home_inventory.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * Operaciones que mezcla el arnes, con su peso relativo dentro de las lecturas o de las escrituras.
+ * Cada una devuelve false si el hogar no tiene un destino para ella (por ejemplo, sin productos), y en ese
+ * caso no se mide.
+ */
+public enum Operacion {
+
+    LISTAR_PRODUCTOS(true, 30) {
+        @Override
+        boolean ejecutar(Contexto c) {
+            c.cliente().get("/api/v1/productos?limite=50", c.miembro().token());
+            return true;
+        }
+    },
+    PRODUCTOS_POR_VENCER(true, 10) {
+        @Override
+        boolean ejecutar(Contexto c) {
+            String limite = LocalDate.now().plusDays(7).format(GeneradorHogares.FORMATO_FECHA);
+            c.cliente().get("/api/v1/productos?orden=expiracion&venceAntes=" + limite, c.miembro().token());
+            return true;
+        }
+    },
+    LUGARES_DEL_GRUPO(true, 20) {
+        @Override
+        boolean ejecutar(Contexto c) {
+            c.cliente().get("/api/v1/lugares/grupo/" + c.hogar().getGrupoFamiliarId(), c.miembro().token());
+            return true;
+        }
+    },
+    PRODUCTOS_DEL_LUGAR(true, 15) {
+        @Override
+        boolean ejecutar(Contexto c) {
+            Optional<String> lugarId = c.hogar().lugarAleatorio(c.random());
+            lugarId.ifPresent(id -> c.cliente().get("/api/v1/lugares/" + id + "/productos", c.miembro().token()));
+            return lugarId.isPresent();
+        }
+    },
+    LISTAS_DEL_GRUPO(true, 15) {
+        @Override
+        boolean ejecutar(Contexto c) {
+            c.cliente().get("/api/v1/listas-compra/grupo/" + c.hogar().getGrupoFamiliarId(), c.miembro().token());
+            return true;
+        }
+    },
+    RESUMEN_GRUPO(true, 10) {
+        @Override
+        boolean ejecutar(Contexto c) {
+            c.cliente().get("/api/v1/grupos-familiares/mi-grupo/resumen", c.miembro().token());
+            return true;
+        }
+    },
+
+    CREAR_PRODUCTO(false, 30) {
+        @Override
+        boolean ejecutar(Contexto c) {
+            Optional<String> lugarId = c.hogar().lugarAleatorio(c.random());
+            lugarId.ifPresent(id -> c.generador().crearProducto(c.hogar(), c.miembro(), id, c.random()));
+            return lugarId.isPresent();
+        }
+    },
+    CONSUMIR_PRODUCTO(false, 35) {
+        @Override
+        boolean ejecutar(Contexto c) {
+            Optional<String> productoId = c.hogar().consumirProductoAleatorio(c.random());
+            productoId.ifPresent(id -> c.cliente().delete("/api/v1/productos/" + id, c.miembro().token()));
+            return productoId.isPresent();
+        }
+    },
+    AGREGAR_ELEMENTO_LISTA(false, 15) {
+        @Override
+        boolean ejecutar(Contexto c) {
+            Optional<String> listaId = c.hogar().listaAleatoria(c.random());
+            listaId.ifPresent(id -> {
+                JsonNode lista = c.cliente().post("/api/v1/listas-compra/" + id + "/productos", c.miembro().token(),
+                        GeneradorHogares.elementoLista(c.random()));
+                JsonNode elementos = lista.path("productosLista");
+                if (!elementos.isEmpty()) {
+                    c.hogar().agregarElemento(id, elementos.get(elementos.size() - 1).path("id").asText());
+                }
+            });
+            return listaId.isPresent();
+        }
+    },
+    MARCAR_ELEMENTO_COMPRADO(false, 15) {
+        @Override
+        boolean ejecutar(Contexto c) {
+            Optional<String> listaId = c.hogar().listaAleatoria(c.random());
+            Optional<String> elementoId = listaId.flatMap(id -> c.hogar().elementoAleatorio(id, c.random()));
+            elementoId.ifPresent(id -> c.cliente().patch(
+                    "/api/v1/listas-compra/" + listaId.get() + "/elementos/" + id + "/comprado",
+                    c.miembro().token(), Map.of("comprado", c.random().nextBoolean())));
+            return elementoId.isPresent();
+        }
+    },
+    CREAR_LUGAR(false, 5) {
+        @Override
+        boolean ejecutar(Contexto c) {
+            c.generador().crearLugar(c.hogar(), c.miembro(), c.random());
+            return true;
+        }
+    };
+
+    private static final List<Operacion> LECTURAS = Arrays.stream(values()).filter(o -> o.lectura).toList();
+    private static final List<Operacion> ESCRITURAS = Arrays.stream(values()).filter(o -> !o.lectura).toList();
+
+    private final boolean lectura;
+    private final int peso;
+
+    Operacion(boolean lectura, int peso) {
+        this.lectura = lectura;
+        this.peso = peso;
+    }
+
+    public boolean esLectura() {
+        return lectura;
+    }
+
+    abstract boolean ejecutar(Contexto contexto);
+
+    /**
+     * Elige primero entre lectura y escritura segun la proporcion configurada y luego por peso.
+     */
+    public static Operacion elegir(double proporcionLectura, Random random) {
+        List<Operacion> candidatas = random.nextDouble() < proporcionLectura ? LECTURAS : ESCRITURAS;
+        int total = candidatas.stream().mapToInt(o -> o.peso).sum();
+        int valor = random.nextInt(total);
+        for (Operacion operacion : candidatas) {
+            valor -= operacion.peso;
+            if (valor < 0) {
+                return operacion;
+            }
+        }
+        return candidatas.get(candidatas.size() - 1);
+    }
+
+    record Contexto(ClienteInventario cliente, GeneradorHogares generador, Hogar hogar, Hogar.Miembro miembro,
+                    Random random) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.home_inventory.reactivo;
+
+import com.example.home_inventory.models.Lugar;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+
+/**
+ * Sirve las lecturas mas frecuentes del inventario con WebFlux y el driver reactivo de Mongo.
+ * Usa los mismos modelos y documentos que la aplicacion principal; no escribe ni crea indices.
+ */
+@SpringBootApplication
+@EntityScan(basePackageClasses = Lugar.class)
+public class HomeInventoryReactivoApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(HomeInventoryReactivoApplication.class, args);
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.example.home_inventory.reactivo.controllers;
+
+import com.example.home_inventory.models.Categoria;
+import com.example.home_inventory.models.ListaCompra;
+import com.example.home_inventory.models.Lugar;
+import com.example.home_inventory.reactivo.repository.CategoriaReactiveRepository;
+import com.example.home_inventory.reactivo.repository.ListaCompraReactiveRepository;
+import com.example.home_inventory.reactivo.repository.LugarReactiveRepository;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * Las mismas rutas de lectura que la aplicacion principal. Con {@code Accept: application/x-ndjson} cada
+ * documento se envia en cuanto llega del cursor de Mongo y la demanda del cliente regula la lectura;
+ * con {@code application/json} se responde el arreglo completo como en la version MVC.
+ */
+@RestController
+public class LecturasController {
+
+    private final LugarReactiveRepository lugarRepository;
+    private final ListaCompraReactiveRepository listaCompraRepository;
+    private final CategoriaReactiveRepository categoriaRepository;
+
+    public LecturasController(LugarReactiveRepository lugarRepository,
+                              ListaCompraReactiveRepository listaCompraRepository,
+                              CategoriaReactiveRepository categoriaRepository) {
+        this.lugarRepository = lugarRepository;
+        this.listaCompraRepository = listaCompraRepository;
+        this.categoriaRepository = categoriaRepository;
+    }
+
+    @GetMapping(path = "/api/v1/lugares/grupo/{grupoFamiliarId}", produces = {
+            MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Lugar> obtenerLugaresPorGrupo(@PathVariable String grupoFamiliarId) {
+        return lugarRepository.findByGrupoFamiliarId(grupoFamiliarId);
+    }
+
+    @GetMapping(path = "/api/v1/listas-compra/grupo/{grupoFamiliarId}", produces = {
+            MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ListaCompra> obtenerListasPorGrupo(@PathVariable String grupoFamiliarId) {
+        return listaCompraRepository.findByGrupoFamiliarId(grupoFamiliarId);
+    }
+
+    @GetMapping(path = "/api/v1/categorias", produces = {
+            MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Categoria> obtenerTodasLasCategorias() {
+        return categoriaRepository.findAll();
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.home_inventory.reactivo.repository;
+
+import com.example.home_inventory.models.Categoria;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CategoriaReactiveRepository extends ReactiveMongoRepository<Categoria, String> {
+}
@@ -0,0 +1,11 @@
+package com.example.home_inventory.reactivo.repository;
+
+import com.example.home_inventory.models.ListaCompra;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ListaCompraReactiveRepository extends ReactiveMongoRepository<ListaCompra, String> {
+    Flux<ListaCompra> findByGrupoFamiliarId(String grupoFamiliarId);
+}
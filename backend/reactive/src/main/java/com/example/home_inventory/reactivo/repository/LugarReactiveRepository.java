@@ -0,0 +1,11 @@
+package com.example.home_inventory.reactivo.repository;
+
+import com.example.home_inventory.models.Lugar;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface LugarReactiveRepository extends ReactiveMongoRepository<Lugar, String> {
+    Flux<Lugar> findByGrupoFamiliarId(String grupoFamiliarId);
+}
@@ -0,0 +1,77 @@
+package com.example.home_inventory.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Caches en memoria de la aplicacion. Cada cache tiene su propio tamano maximo y expiracion; todas registran
+ * estadisticas, que Actuator publica como metricas cache.gets / cache.puts / cache.evictions.
+ * La expiracion acota cuanto puede tardar una instancia en ver un cambio hecho a traves de otra.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String CATEGORIAS = "categorias";
+    public static final String CATEGORIA_POR_NOMBRE = "categoriaPorNombre";
+    public static final String MEMBRESIAS = "membresias";
+    public static final String USUARIOS = "usuarios";
+
+    @Value("${inventario.cache.categorias.tamano-maximo:500}")
+    private long tamanoMaximoCategorias;
+
+    @Value("${inventario.cache.categorias.expiracion:10m}")
+    private Duration expiracionCategorias;
+
+    @Value("${inventario.cache.membresias.tamano-maximo:10000}")
+    private long tamanoMaximoMembresias;
+
+    @Value("${inventario.cache.membresias.expiracion:60s}")
+    private Duration expiracionMembresias;
+
+    @Value("${inventario.cache.usuarios.tamano-maximo:10000}")
+    private long tamanoMaximoUsuarios;
+
+    @Value("${inventario.cache.usuarios.expiracion:30s}")
+    private Duration expiracionUsuarios;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Sin nombres dinamicos: usar una cache no declarada aqui es un error
+        cacheManager.setCacheNames(List.of());
+
+        // La lista completa es una sola entrada
+        cacheManager.registerCustomCache(CATEGORIAS, Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(expiracionCategorias)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(CATEGORIA_POR_NOMBRE, Caffeine.newBuilder()
+                .maximumSize(tamanoMaximoCategorias)
+                .expireAfterWrite(expiracionCategorias)
+                .recordStats()
+                .build());
+        // Usuario -> grupo; se invalida al cambiar los miembros
+        cacheManager.registerCustomCache(MEMBRESIAS, Caffeine.newBuilder()
+                .maximumSize(tamanoMaximoMembresias)
+                .expireAfterWrite(expiracionMembresias)
+                .recordStats()
+                .build());
+        // Username -> UserDetails del login; expiracion corta porque guarda el hash de la contraseña
+        cacheManager.registerCustomCache(USUARIOS, Caffeine.newBuilder()
+                .maximumSize(tamanoMaximoUsuarios)
+                .expireAfterWrite(expiracionUsuarios)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.home_inventory.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt con costo configurable o calibrado al arrancar para que un hash tarde cerca de
+ * {@code inventario.contrasenas.objetivo-ms} en esta maquina. Con varias instancias conviene calibrar una vez
+ * y fijar el valor del log en {@code inventario.contrasenas.costo} para todo el despliegue. Los hashes guardados
+ * con un costo menor se rehacen en el siguiente login (ver {@link SecurityConfig}). Como cada hash ocupa un nucleo completo,
+ * un semaforo limita cuantos corren a la vez para que un pico de logins no deje sin CPU al resto de la API;
+ * si no hay lugar dentro de la espera maxima la peticion se rechaza con 503.
+ */
+@Component
+public class CodificadorContrasenas implements PasswordEncoder {
+
+    private static final Logger log = LoggerFactory.getLogger(CodificadorContrasenas.class);
+
+    private static final Pattern COSTO_BCRYPT = Pattern.compile("^\\$2[abyx]?\\$(\\d\\d)\\$");
+    private static final int COSTO_CALIBRACION = 8;
+    private static final int MUESTRAS_CALIBRACION = 3;
+
+    private final int costo;
+    private final BCryptPasswordEncoder bcrypt;
+    private final Semaphore permisos;
+    private final long esperaMaximaMs;
+
+    private final Timer tiempoCodificar;
+    private final Timer tiempoVerificar;
+    private final Counter rechazos;
+
+    public CodificadorContrasenas(MeterRegistry meterRegistry,
+                                  @Value("${inventario.contrasenas.costo:0}") int costoConfigurado,
+                                  @Value("${inventario.contrasenas.objetivo-ms:250}") long objetivoMs,
+                                  @Value("${inventario.contrasenas.costo-minimo:10}") int costoMinimo,
+                                  @Value("${inventario.contrasenas.costo-maximo:14}") int costoMaximo,
+                                  @Value("${inventario.contrasenas.hash-concurrentes:0}") int hashConcurrentes,
+                                  @Value("${inventario.contrasenas.espera-maxima-ms:2000}") long esperaMaximaMs) {
+        this.costo = costoConfigurado > 0
+                ? Math.max(costoMinimo, costoConfigurado)
+                : calibrar(objetivoMs, costoMinimo, costoMaximo);
+        this.bcrypt = new BCryptPasswordEncoder(costo);
+
+        int concurrentes = hashConcurrentes > 0
+                ? hashConcurrentes
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.permisos = new Semaphore(concurrentes, true);
+        this.esperaMaximaMs = esperaMaximaMs;
+
+        this.tiempoCodificar = Timer.builder("inventario.contrasenas.hash")
+                .tag("operacion", "codificar")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.tiempoVerificar = Timer.builder("inventario.contrasenas.hash")
+                .tag("operacion", "verificar")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rechazos = Counter.builder("inventario.contrasenas.rechazos")
+                .description("Hashes rechazados por superar la espera maxima del limitador")
+                .register(meterRegistry);
+        int costoActivo = costo;
+        Gauge.builder("inventario.contrasenas.costo", () -> costoActivo).register(meterRegistry);
+
+        log.info("BCrypt con costo {} y hasta {} hashes concurrentes", costo, concurrentes);
+    }
+
+    // Cada punto de costo duplica el tiempo: se mide un costo bajo y se extrapola
+    private static int calibrar(long objetivoMs, int costoMinimo, int costoMaximo) {
+        BCryptPasswordEncoder prueba = new BCryptPasswordEncoder(COSTO_CALIBRACION);
+        prueba.encode("calentamiento");
+        long mejorNanos = Long.MAX_VALUE;
+        for (int i = 0; i < MUESTRAS_CALIBRACION; i++) {
+            long inicio = System.nanoTime();
+            prueba.encode("calibracion");
+            mejorNanos = Math.min(mejorNanos, System.nanoTime() - inicio);
+        }
+
+        double ms = mejorNanos / 1e6;
+        int costo = COSTO_CALIBRACION;
+        while (costo < costoMaximo && ms * 2 <= objetivoMs) {
+            ms *= 2;
+            costo++;
+        }
+        int calibrado = Math.max(costoMinimo, costo);
+        log.info("Costo BCrypt calibrado en {} (~{} ms por hash, objetivo {} ms); fijarlo con inventario.contrasenas.costo={}",
+                calibrado, Math.round(ms), objetivoMs, calibrado);
+        return calibrado;
+    }
+
+    public int getCosto() {
+        return costo;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return limitado(tiempoCodificar, () -> bcrypt.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return limitado(tiempoVerificar, () -> bcrypt.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Un hash solo se rehace si su costo es menor al actual. Nunca se baja: instancias que calibran distinto
+     * no se pisan el hash en cada login, y una que arranca con la CPU limitada no debilita los guardados.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = COSTO_BCRYPT.matcher(encodedPassword);
+        if (!matcher.find()) {
+            return false;
+        }
+        int costoGuardado = Integer.parseInt(matcher.group(1));
+        return costoGuardado < costo;
+    }
+
+    private <T> T limitado(Timer timer, Supplier<T> hash) {
+        boolean adquirido;
+        try {
+            adquirido = permisos.tryAcquire(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HashSaturadoException();
+        }
+        if (!adquirido) {
+            rechazos.increment();
+            throw new HashSaturadoException();
+        }
+        try {
+            return timer.record(hash);
+        } finally {
+            permisos.release();
+        }
+    }
+
+    @ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "Demasiados inicios de sesión simultáneos, intenta de nuevo")
+    public static class HashSaturadoException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public HashSaturadoException() {
+            super("Demasiados inicios de sesión simultáneos, intenta de nuevo");
+        }
+    }
+}
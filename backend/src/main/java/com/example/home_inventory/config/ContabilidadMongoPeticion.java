@@ -0,0 +1,92 @@
+package com.example.home_inventory.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Operaciones Mongo hechas durante la peticion HTTP en curso. La abre y la cierra {@link PerfiladorPeticiones};
+ * {@link MedidorComandosMongo} le suma cada comando. El driver sincrono notifica los comandos en el mismo hilo
+ * que los ejecuta, por eso alcanza con un ThreadLocal. Lo que corre en otros hilos no se atribuye a ninguna
+ * peticion: el relay del outbox, las tareas programadas y tambien el trabajo asincrono de las propias
+ * peticiones, como la exportacion con StreamingResponseBody y los eventos SSE, que escriben la respuesta
+ * despues de que el filtro cerro la contabilidad.
+ */
+public class ContabilidadMongoPeticion {
+
+    private static final ThreadLocal<ContabilidadMongoPeticion> ACTUAL = new ThreadLocal<>();
+
+    private final Map<String, PorColeccion> porColeccion = new LinkedHashMap<>();
+
+    static ContabilidadMongoPeticion abrir() {
+        ContabilidadMongoPeticion contabilidad = new ContabilidadMongoPeticion();
+        ACTUAL.set(contabilidad);
+        return contabilidad;
+    }
+
+    static void cerrar() {
+        ACTUAL.remove();
+    }
+
+    static void registrar(String coleccion, String comando, long bytesEnviados, long bytesRecibidos, long documentos) {
+        ContabilidadMongoPeticion contabilidad = ACTUAL.get();
+        if (contabilidad != null) {
+            contabilidad.porColeccion.computeIfAbsent(coleccion, c -> new PorColeccion())
+                    .sumar(comando, bytesEnviados, bytesRecibidos, documentos);
+        }
+    }
+
+    public Map<String, PorColeccion> getPorColeccion() {
+        return porColeccion;
+    }
+
+    public long getOperaciones() {
+        return porColeccion.values().stream().mapToLong(PorColeccion::getOperaciones).sum();
+    }
+
+    public long getBytes() {
+        return porColeccion.values().stream().mapToLong(c -> c.getBytesEnviados() + c.getBytesRecibidos()).sum();
+    }
+
+    public static class PorColeccion {
+
+        private final Map<String, Integer> operacionesPorComando = new LinkedHashMap<>();
+        private long operaciones;
+        private long bytesEnviados;
+        private long bytesRecibidos;
+        private long documentos;
+
+        void sumar(String comando, long enviados, long recibidos, long documentos) {
+            operacionesPorComando.merge(comando, 1, Integer::sum);
+            operaciones++;
+            bytesEnviados += enviados;
+            bytesRecibidos += recibidos;
+            this.documentos += documentos;
+        }
+
+        public Map<String, Integer> getOperacionesPorComando() {
+            return operacionesPorComando;
+        }
+
+        public long getOperaciones() {
+            return operaciones;
+        }
+
+        public long getBytesEnviados() {
+            return bytesEnviados;
+        }
+
+        public long getBytesRecibidos() {
+            return bytesRecibidos;
+        }
+
+        public long getDocumentos() {
+            return documentos;
+        }
+
+        @Override
+        public String toString() {
+            return operacionesPorComando + " docs=" + documentos + " enviados=" + bytesEnviados
+                    + "B recibidos=" + bytesRecibidos + "B";
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.home_inventory.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Inyecta en un parametro {@code UserSimpleDTO} el usuario autenticado de la solicitud,
+ * tomado de los claims del JWT ya validado por Spring Security.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+}
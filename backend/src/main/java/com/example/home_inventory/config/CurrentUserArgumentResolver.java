@@ -0,0 +1,71 @@
+package com.example.home_inventory.config;
+
+import com.example.home_inventory.models.User;
+import com.example.home_inventory.models.UserSimpleDTO;
+import com.example.home_inventory.repository.UserRepository;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.server.ResponseStatusException;
+
+@Component
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private static final String ATRIBUTO_USUARIO = CurrentUserArgumentResolver.class.getName() + ".usuario";
+
+    private final UserRepository userRepository;
+
+    public CurrentUserArgumentResolver(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentUser.class)
+                && UserSimpleDTO.class.isAssignableFrom(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter,
+                                  ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest,
+                                  WebDataBinderFactory binderFactory) {
+        // Se resuelve una sola vez por solicitud aunque varios parametros lo pidan
+        Object enCache = webRequest.getAttribute(ATRIBUTO_USUARIO, RequestAttributes.SCOPE_REQUEST);
+        if (enCache instanceof UserSimpleDTO usuario) {
+            return usuario;
+        }
+
+        UserSimpleDTO usuario = resolverUsuario();
+        webRequest.setAttribute(ATRIBUTO_USUARIO, usuario, RequestAttributes.SCOPE_REQUEST);
+        return usuario;
+    }
+
+    private UserSimpleDTO resolverUsuario() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof Jwt jwt)) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Usuario no autenticado");
+        }
+
+        String id = jwt.getClaimAsString("id");
+        String username = jwt.getClaimAsString("username");
+        String email = jwt.getClaimAsString("email");
+
+        if (id != null) {
+            return new UserSimpleDTO(id, username, email);
+        }
+
+        // Tokens emitidos antes de incluir el claim "id": se busca el usuario por username
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Usuario no encontrado"));
+        return new UserSimpleDTO(user.getId(), user.getUsername(), user.getEmail());
+    }
+}
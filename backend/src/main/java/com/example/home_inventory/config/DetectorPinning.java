@@ -0,0 +1,106 @@
+package com.example.home_inventory.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Con hilos virtuales activos, escucha el evento JFR jdk.VirtualThreadPinned: un hilo virtual que se bloquea
+ * dentro de un bloque synchronized (o en codigo nativo) retiene su hilo portador y limita la concurrencia.
+ * Cada punto de bloqueo se cuenta en la metrica inventario.hilos.virtuales.pinning y se registra en el log
+ * la primera vez que aparece, con la pila donde ocurrio.
+ */
+@Component
+@ConditionalOnProperty(name = {"spring.threads.virtual.enabled", "inventario.hilos-virtuales.detectar-pinning"},
+        havingValue = "true")
+public class DetectorPinning implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(DetectorPinning.class);
+
+    private static final String EVENTO_PINNING = "jdk.VirtualThreadPinned";
+    private static final String PAQUETE_APLICACION = "com.example.home_inventory";
+    private static final int FRAMES_EN_LOG = 12;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Set<String> origenesReportados = ConcurrentHashMap.newKeySet();
+
+    @Value("${inventario.hilos-virtuales.umbral-pinning:20ms}")
+    private Duration umbral;
+
+    private volatile RecordingStream recordingStream;
+
+    public DetectorPinning(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void start() {
+        RecordingStream stream = new RecordingStream();
+        stream.enable(EVENTO_PINNING).withThreshold(umbral).withStackTrace();
+        stream.onEvent(EVENTO_PINNING, this::registrar);
+        stream.startAsync();
+        recordingStream = stream;
+        log.info("Deteccion de pinning de hilos virtuales activa (umbral {})", umbral);
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream stream = recordingStream;
+        if (stream != null) {
+            stream.close();
+            recordingStream = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return recordingStream != null;
+    }
+
+    private void registrar(RecordedEvent evento) {
+        List<RecordedFrame> frames = frames(evento.getStackTrace());
+        String origen = origen(frames);
+        meterRegistry.counter("inventario.hilos.virtuales.pinning", "origen", origen).increment();
+
+        if (origenesReportados.add(origen)) {
+            String pila = frames.stream()
+                    .limit(FRAMES_EN_LOG)
+                    .map(frame -> "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                            + "(linea " + frame.getLineNumber() + ")")
+                    .collect(Collectors.joining("\n"));
+            log.warn("Hilo virtual fijado a su portador durante {} ms en {}\n{}",
+                    evento.getDuration().toMillis(), origen, pila);
+        }
+    }
+
+    private List<RecordedFrame> frames(RecordedStackTrace stackTrace) {
+        return stackTrace != null ? stackTrace.getFrames() : List.of();
+    }
+
+    // El primer frame de la aplicacion identifica mejor el punto a corregir que el frame de la libreria
+    private String origen(List<RecordedFrame> frames) {
+        RecordedFrame elegido = frames.stream()
+                .filter(frame -> frame.getMethod().getType().getName().startsWith(PAQUETE_APLICACION))
+                .findFirst()
+                .orElse(frames.isEmpty() ? null : frames.get(0));
+        if (elegido == null) {
+            return "desconocido";
+        }
+        return elegido.getMethod().getType().getName() + "." + elegido.getMethod().getName();
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.home_inventory.config;
+
+import com.example.home_inventory.models.Categoria;
+import com.example.home_inventory.models.GrupoFamiliar;
+import com.example.home_inventory.models.Producto;
+import com.example.home_inventory.models.User;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Indices de las entidades que tambien se guardan embebidas (Producto dentro de Lugar, Categoria dentro de Producto).
+ * Si se declararan con {@code @Indexed}, Spring Data los replicaria sobre las rutas embebidas de la coleccion
+ * contenedora (por ejemplo un indice unico en productos.categoria.nombre), por eso se crean aqui.
+ * <p>
+ * Los indices unicos tambien se crean aqui y no con anotaciones: antes de crearlos se buscan valores repetidos.
+ * Si los hay, se informan en el log y el indice no se crea, en lugar de impedir el arranque sobre una base con
+ * datos anteriores a la restriccion. Se vuelve a intentar en cada arranque hasta que los duplicados se corrijan.
+ * Como las anotaciones a las que reemplazan, solo se crean con {@code spring.data.mongodb.auto-index-creation}.
+ */
+@Component
+public class IndicesMongo implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(IndicesMongo.class);
+
+    // Cuantos valores repetidos se muestran en el log por indice
+    private static final int EJEMPLOS_DUPLICADOS = 10;
+
+    public static final String INDICE_NOMBRE_GRUPO = "nombre";
+    public static final String INDICE_MIEMBROS_GRUPO = "miembros_id_unico";
+
+    private final MongoTemplate mongoTemplate;
+
+    private final boolean crearUnicos;
+
+    public IndicesMongo(MongoTemplate mongoTemplate,
+                        @Value("${spring.data.mongodb.auto-index-creation:false}") boolean crearUnicos) {
+        this.mongoTemplate = mongoTemplate;
+        this.crearUnicos = crearUnicos;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (crearUnicos) {
+            crearUnicos();
+        }
+
+        IndexOperations indicesProducto = mongoTemplate.indexOps(Producto.class);
+        indicesProducto.createIndex(new Index().on("nombre", Sort.Direction.ASC).named("nombre"));
+        indicesProducto.createIndex(new Index().on("lugarId", Sort.Direction.ASC).named("lugarId"));
+        // Ventana de productos que entran en el aviso de expiracion
+        indicesProducto.createIndex(new Index().on("expiracion", Sort.Direction.ASC).named("expiracion"));
+        // Listado paginado por grupo: un indice por cada criterio de orden, con _id como desempate
+        for (String campoOrden : List.of("nombre", "cantidad", "expiracion")) {
+            indicesProducto.createIndex(new Index()
+                    .on("grupoFamiliarId", Sort.Direction.ASC)
+                    .on(campoOrden, Sort.Direction.ASC)
+                    .on("_id", Sort.Direction.ASC)
+                    .named("grupoFamiliarId_" + campoOrden));
+        }
+    }
+
+    private void crearUnicos() {
+        crearUnico(Categoria.class, "nombre", false,
+                new Index().on("nombre", Sort.Direction.ASC).unique().named("nombre"));
+        crearUnico(User.class, "username", false,
+                new Index().on("username", Sort.Direction.ASC).unique().named("username"));
+        crearUnico(GrupoFamiliar.class, "nombre", false,
+                new Index().on("nombre", Sort.Direction.ASC).unique().named(INDICE_NOMBRE_GRUPO));
+        // Un usuario solo puede aparecer en un grupo
+        crearUnico(GrupoFamiliar.class, "miembros._id", true,
+                new Index().on("miembros._id", Sort.Direction.ASC).unique()
+                        .partial(PartialIndexFilter.of(Criteria.where("miembros._id").exists(true)))
+                        .named(INDICE_MIEMBROS_GRUPO));
+    }
+
+    private void crearUnico(Class<?> entidad, String campo, boolean enArreglo, Index indice) {
+        IndexOperations operaciones = mongoTemplate.indexOps(entidad);
+        String nombre = (String) indice.getIndexOptions().get("name");
+        // Si el indice ya existe no puede haber duplicados y se evita recorrer la coleccion
+        if (operaciones.getIndexInfo().stream().anyMatch(info -> info.getName().equals(nombre))) {
+            return;
+        }
+
+        List<Document> duplicados = buscarDuplicados(entidad, campo, enArreglo);
+        if (!duplicados.isEmpty()) {
+            log.error("No se crea el indice unico {} de {}: hay valores repetidos de {} (valor y ids, primeros {}): {}",
+                    nombre, mongoTemplate.getCollectionName(entidad), campo, EJEMPLOS_DUPLICADOS, duplicados);
+            return;
+        }
+        operaciones.createIndex(indice);
+    }
+
+    private List<Document> buscarDuplicados(Class<?> entidad, String campo, boolean enArreglo) {
+        List<Document> pipeline = new ArrayList<>();
+        if (enArreglo) {
+            // El indice es multikey: los repetidos se buscan entre documentos distintos
+            String arreglo = campo.substring(0, campo.indexOf('.'));
+            pipeline.add(new Document("$unwind", "$" + arreglo));
+            pipeline.add(new Document("$match", new Document(campo, new Document("$exists", true))));
+        }
+        pipeline.add(new Document("$group", new Document("_id", "$" + campo)
+                .append("ids", new Document("$addToSet", "$_id"))));
+        pipeline.add(new Document("$match", new Document("ids.1", new Document("$exists", true))));
+        pipeline.add(new Document("$limit", EJEMPLOS_DUPLICADOS));
+
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(entidad))
+                .aggregate(pipeline)
+                .allowDiskUse(true)
+                .into(new ArrayList<>());
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.home_inventory.config;
+
+import com.example.home_inventory.models.GrupoFamiliar;
+import com.example.home_inventory.models.ListaCompra;
+import com.example.home_inventory.models.Lugar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Asigna version 0 a los documentos guardados antes de que las entidades tuvieran {@code @Version}.
+ * Sin version, Spring Data los consideraria nuevos y {@code save} intentaria insertarlos de nuevo.
+ * Se ejecuta antes de que la aplicacion empiece a atender solicitudes. Como las migraciones de grupos, productos
+ * y listas, es de una sola vez: recorre las colecciones completas, asi que se desactiva con
+ * {@code inventario.migracion.versiones.habilitada=false} una vez aplicada.
+ */
+@Component
+public class InicializadorVersiones implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(InicializadorVersiones.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    private final boolean habilitada;
+
+    public InicializadorVersiones(MongoTemplate mongoTemplate,
+                                  @Value("${inventario.migracion.versiones.habilitada:true}") boolean habilitada) {
+        this.mongoTemplate = mongoTemplate;
+        this.habilitada = habilitada;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!habilitada) {
+            return;
+        }
+        for (Class<?> entidad : List.of(GrupoFamiliar.class, Lugar.class, ListaCompra.class)) {
+            long actualizados = mongoTemplate.updateMulti(new Query(Criteria.where("version").exists(false)),
+                    Update.update("version", 0L), entidad).getModifiedCount();
+            if (actualizados > 0) {
+                log.info("Asignada version inicial a {} documentos de {}", actualizados, entidad.getSimpleName());
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.home_inventory.config;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.BsonArray;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Complementa la metrica mongodb.driver.commands de Actuator (tiempo por comando y coleccion) con lo que
+ * mueve cada comando: bytes enviados y recibidos, documentos devueltos y documentos afectados por escrituras.
+ * Los tamanos se calculan serializando el comando y la respuesta, un costo pequeno frente al viaje a la base.
+ */
+public class MedidorComandosMongo implements CommandListener {
+
+    private static final Set<String> ESCRITURAS = Set.of("insert", "update", "delete");
+
+    private static final BsonDocumentCodec CODEC = new BsonDocumentCodec();
+
+    private final MeterRegistry meterRegistry;
+
+    // Datos del inicio de cada comando hasta que llega su respuesta, por requestId
+    private final Map<Integer, Inicio> enCurso = new ConcurrentHashMap<>();
+
+    public MedidorComandosMongo(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        enCurso.put(event.getRequestId(), new Inicio(coleccion(event), tamano(event.getCommand())));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        Inicio inicio = enCurso.remove(event.getRequestId());
+        if (inicio == null) {
+            return;
+        }
+        String comando = event.getCommandName();
+        BsonDocument respuesta = event.getResponse();
+        int bytesRecibidos = tamano(respuesta);
+
+        resumen("inventario.mongo.bytes.enviados", "Bytes enviados a Mongo por comando", "bytes", comando, inicio.coleccion())
+                .record(inicio.bytesEnviados());
+        resumen("inventario.mongo.bytes.recibidos", "Bytes recibidos de Mongo por comando", "bytes", comando, inicio.coleccion())
+                .record(bytesRecibidos);
+
+        int documentos;
+        if (ESCRITURAS.contains(comando)) {
+            documentos = entero(respuesta.get("n"));
+            resumen("inventario.mongo.documentos.escritos", "Documentos afectados por escritura", "documentos",
+                    comando, inicio.coleccion()).record(documentos);
+        } else {
+            documentos = documentosDevueltos(respuesta);
+            resumen("inventario.mongo.documentos.devueltos", "Documentos devueltos por lectura", "documentos",
+                    comando, inicio.coleccion()).record(documentos);
+        }
+
+        ContabilidadMongoPeticion.registrar(inicio.coleccion(), comando, inicio.bytesEnviados(), bytesRecibidos, documentos);
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        enCurso.remove(event.getRequestId());
+    }
+
+    private DistributionSummary resumen(String nombre, String descripcion, String unidad, String comando, String coleccion) {
+        return DistributionSummary.builder(nombre)
+                .description(descripcion)
+                .baseUnit(unidad)
+                .tag("command", comando)
+                .tag("collection", coleccion)
+                .register(meterRegistry);
+    }
+
+    static String coleccion(CommandStartedEvent event) {
+        BsonDocument comando = event.getCommand();
+        // getMore lleva la coleccion en un campo aparte; el resto la lleva como valor del nombre del comando
+        BsonValue valor = "getMore".equals(event.getCommandName())
+                ? comando.get("collection")
+                : comando.get(event.getCommandName());
+        return valor != null && valor.isString() ? valor.asString().getValue() : "ninguna";
+    }
+
+    static int documentosDevueltos(BsonDocument respuesta) {
+        BsonValue cursor = respuesta.get("cursor");
+        if (cursor != null && cursor.isDocument()) {
+            BsonValue lote = cursor.asDocument().containsKey("firstBatch")
+                    ? cursor.asDocument().get("firstBatch")
+                    : cursor.asDocument().get("nextBatch");
+            return lote instanceof BsonArray documentos ? documentos.size() : 0;
+        }
+        // findAndModify devuelve el documento en value; count y distinct en n y values
+        BsonValue valor = respuesta.get("value");
+        if (valor != null) {
+            return valor.isDocument() ? 1 : 0;
+        }
+        BsonValue valores = respuesta.get("values");
+        if (valores instanceof BsonArray distintos) {
+            return distintos.size();
+        }
+        return entero(respuesta.get("n"));
+    }
+
+    static int tamano(BsonDocument documento) {
+        if (documento instanceof RawBsonDocument crudo) {
+            return crudo.getByteBuffer().remaining();
+        }
+        try (BasicOutputBuffer buffer = new BasicOutputBuffer()) {
+            CODEC.encode(new BsonBinaryWriter(buffer), documento, EncoderContext.builder().build());
+            return buffer.getPosition();
+        }
+    }
+
+    private static int entero(BsonValue valor) {
+        return valor != null && valor.isNumber() ? valor.asNumber().intValue() : 0;
+    }
+
+    private record Inicio(String coleccion, int bytesEnviados) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.home_inventory.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.data.DefaultRepositoryTagsProvider;
+import org.springframework.boot.actuate.metrics.data.RepositoryTagsProvider;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.repository.core.support.AbstractRepositoryMetadata;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Metricas propias publicadas en /actuator/prometheus:
+ * <ul>
+ *     <li>spring.data.repository.invocations: la de Actuator, con la coleccion como etiqueta extra.</li>
+ *     <li>inventario.mongo.*: bytes y documentos por comando y coleccion ({@link MedidorComandosMongo}).</li>
+ *     <li>inventario.servicio: latencia de cada metodo de los servicios anotados con {@code @Timed}.</li>
+ * </ul>
+ */
+@Configuration
+public class MetricasConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public MedidorComandosMongo medidorComandosMongo(MeterRegistry meterRegistry) {
+        return new MedidorComandosMongo(meterRegistry);
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer medidorComandosMongoCustomizer(MedidorComandosMongo medidor) {
+        return builder -> builder.addCommandListener(medidor);
+    }
+
+    @Bean
+    public RepositoryTagsProvider repositoryTagsProvider(MongoMappingContext mappingContext) {
+        DefaultRepositoryTagsProvider porDefecto = new DefaultRepositoryTagsProvider();
+        Map<Class<?>, Tag> colecciones = new ConcurrentHashMap<>();
+        return invocacion -> Tags.of(porDefecto.repositoryTags(invocacion)).and(colecciones.computeIfAbsent(
+                invocacion.getRepositoryInterface(), repositorio -> {
+                    Class<?> dominio = AbstractRepositoryMetadata.getMetadata(repositorio).getDomainType();
+                    MongoPersistentEntity<?> entidad = mappingContext.getPersistentEntity(dominio);
+                    return Tag.of("collection", entidad != null ? entidad.getCollection() : "ninguna");
+                }));
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.home_inventory.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gauges con el tamano de los arreglos embebidos de GrupoFamiliar y Lugar (maximo y promedio de elementos)
+ * y el tamano BSON de esos documentos. Se recalculan periodicamente con una agregacion por coleccion, que
+ * recorre la coleccion completa: el intervalo se configura con {@code inventario.metricas.embebidos.intervalo-ms}.
+ */
+@Component
+public class MetricasEmbebidos {
+
+    private static final Logger log = LoggerFactory.getLogger(MetricasEmbebidos.class);
+
+    private static final Map<String, List<String>> ARREGLOS = Map.of(
+            "GrupoFamiliar", List.of("miembros", "lugarIds", "listaCompraIds"),
+            "Lugar", List.of("productos"));
+
+    private final MongoTemplate mongoTemplate;
+
+    private final Map<String, Double> valores = new ConcurrentHashMap<>();
+
+    @Value("${inventario.metricas.embebidos.habilitadas:true}")
+    private boolean habilitadas;
+
+    public MetricasEmbebidos(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+
+        ARREGLOS.forEach((coleccion, campos) -> {
+            for (String estadistica : List.of("max", "promedio")) {
+                for (String campo : campos) {
+                    Gauge.builder("inventario.documentos.embebidos", valores, v -> v.getOrDefault(clave(coleccion, campo, estadistica), 0.0))
+                            .description("Elementos en los arreglos embebidos")
+                            .tag("collection", coleccion)
+                            .tag("campo", campo)
+                            .tag("estadistica", estadistica)
+                            .register(meterRegistry);
+                }
+                Gauge.builder("inventario.documentos.tamano", valores, v -> v.getOrDefault(clave(coleccion, "bytes", estadistica), 0.0))
+                        .description("Tamano BSON de los documentos")
+                        .baseUnit("bytes")
+                        .tag("collection", coleccion)
+                        .tag("estadistica", estadistica)
+                        .register(meterRegistry);
+            }
+        });
+    }
+
+    @Scheduled(initialDelayString = "${inventario.metricas.embebidos.retraso-inicial-ms:60000}",
+            fixedDelayString = "${inventario.metricas.embebidos.intervalo-ms:600000}")
+    public void actualizar() {
+        if (!habilitadas) {
+            return;
+        }
+        ARREGLOS.forEach((coleccion, campos) -> {
+            try {
+                actualizarColeccion(coleccion, campos);
+            } catch (RuntimeException e) {
+                log.warn("No se pudieron calcular los tamanos embebidos de {}: {}", coleccion, e.getMessage());
+            }
+        });
+    }
+
+    private void actualizarColeccion(String coleccion, List<String> campos) {
+        Document grupo = new Document("_id", null);
+        for (String campo : campos) {
+            Document cantidad = new Document("$size", new Document("$ifNull", List.of("$" + campo, new ArrayList<>())));
+            grupo.append(campo + "_max", new Document("$max", cantidad))
+                    .append(campo + "_promedio", new Document("$avg", cantidad));
+        }
+        Document bytes = new Document("$bsonSize", "$$ROOT");
+        grupo.append("bytes_max", new Document("$max", bytes))
+                .append("bytes_promedio", new Document("$avg", bytes));
+
+        Document resultado = mongoTemplate.getCollection(coleccion)
+                .aggregate(List.of(new Document("$group", grupo)))
+                .first();
+        if (resultado == null) {
+            return;
+        }
+        List<String> medidos = new ArrayList<>(campos);
+        medidos.add("bytes");
+        for (String campo : medidos) {
+            for (String estadistica : List.of("max", "promedio")) {
+                Object valor = resultado.get(campo + "_" + estadistica);
+                valores.put(clave(coleccion, campo, estadistica), valor instanceof Number n ? n.doubleValue() : 0.0);
+            }
+        }
+    }
+
+    private static String clave(String coleccion, String campo, String estadistica) {
+        return coleccion + "." + campo + "." + estadistica;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.home_inventory.config;
+
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+
+/**
+ * Hace efectivos los {@code @Transactional} de los servicios. Mongo solo admite transacciones en un replica set
+ * o un cluster fragmentado (Atlas lo es), por eso estan desactivadas salvo que se pida
+ * {@code inventario.transacciones.habilitadas=true}; sin ellas cada escritura se confirma por separado. Al
+ * activarlas se comprueba al arrancar que el servidor las soporte, en lugar de fallar en cada escritura.
+ */
+@Configuration
+@ConditionalOnProperty(name = "inventario.transacciones.habilitadas", havingValue = "true")
+public class MongoTransaccionesConfig {
+
+    @Bean
+    public MongoTransactionManager transactionManager(MongoDatabaseFactory mongoDatabaseFactory) {
+        Document hello = mongoDatabaseFactory.getMongoDatabase().runCommand(new Document("hello", 1));
+        boolean soportaTransacciones = hello.containsKey("setName") || "isdbgrid".equals(hello.getString("msg"));
+        if (!soportaTransacciones) {
+            throw new IllegalStateException("inventario.transacciones.habilitadas=true requiere un replica set; "
+                    + "el servidor Mongo es standalone");
+        }
+        return new MongoTransactionManager(mongoDatabaseFactory);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.home_inventory.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * /actuator/mongoperfil: endpoints con mas operaciones Mongo por peticion desde el arranque (o el ultimo
+ * reinicio). Acepta {@code orden=operaciones|bytes|tiempo|excesos} y {@code limite}; DELETE reinicia los
+ * contadores. Como todo Actuator, solo se publica en el puerto interno de gestion.
+ */
+@Component
+@Endpoint(id = "mongoperfil")
+public class PerfilMongoEndpoint {
+
+    private final PerfiladorPeticiones perfiladorPeticiones;
+
+    @Value("${inventario.perfil-mongo.top:10}")
+    private int limitePorDefecto;
+
+    public PerfilMongoEndpoint(PerfiladorPeticiones perfiladorPeticiones) {
+        this.perfiladorPeticiones = perfiladorPeticiones;
+    }
+
+    @ReadOperation
+    public List<PerfiladorPeticiones.ResumenEndpoint> top(@Nullable String orden, @Nullable Integer limite) {
+        try {
+            return perfiladorPeticiones.obtenerTop(orden != null ? orden : "operaciones",
+                    limite != null ? limite : limitePorDefecto);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+
+    @DeleteOperation
+    public void reiniciar() {
+        perfiladorPeticiones.reiniciar();
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.home_inventory.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cuenta las operaciones y bytes de Mongo de cada peticion HTTP. Las que superan alguno de los umbrales
+ * ({@code inventario.perfil-mongo.*}) se registran en el log con el desglose por coleccion, y por endpoint se
+ * acumulan totales y maximos que publica el endpoint de Actuator {@code mongoperfil} (puerto interno de gestion).
+ * Las respuestas asincronas solo cuentan lo hecho antes de devolver el control; ver
+ * {@link ContabilidadMongoPeticion}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class PerfiladorPeticiones extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(PerfiladorPeticiones.class);
+
+    // Sin patron de ruta (404, recursos estaticos) se agrupa todo bajo un mismo nombre
+    private static final String SIN_PATRON = "sin-patron";
+
+    private final Map<String, EstadisticaEndpoint> porEndpoint = new ConcurrentHashMap<>();
+
+    @Value("${inventario.perfil-mongo.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${inventario.perfil-mongo.umbral-operaciones:25}")
+    private long umbralOperaciones;
+
+    @Value("${inventario.perfil-mongo.umbral-bytes:1048576}")
+    private long umbralBytes;
+
+    @Value("${inventario.perfil-mongo.umbral-ms:500}")
+    private long umbralMs;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !habilitado;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContabilidadMongoPeticion contabilidad = ContabilidadMongoPeticion.abrir();
+        long inicio = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ContabilidadMongoPeticion.cerrar();
+            long ms = (System.nanoTime() - inicio) / 1_000_000;
+            Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String endpoint = request.getMethod() + " " + (patron != null ? patron : SIN_PATRON);
+            registrar(endpoint, contabilidad, ms);
+        }
+    }
+
+    private void registrar(String endpoint, ContabilidadMongoPeticion contabilidad, long ms) {
+        long operaciones = contabilidad.getOperaciones();
+        long bytes = contabilidad.getBytes();
+        boolean excede = operaciones > umbralOperaciones || bytes > umbralBytes || ms > umbralMs;
+
+        porEndpoint.computeIfAbsent(endpoint, e -> new EstadisticaEndpoint())
+                .sumar(operaciones, bytes, ms, excede);
+
+        if (excede) {
+            log.warn("{} hizo {} operaciones Mongo ({} bytes) en {} ms: {}",
+                    endpoint, operaciones, bytes, ms, contabilidad.getPorColeccion());
+        }
+    }
+
+    public List<ResumenEndpoint> obtenerTop(String orden, int limite) {
+        Comparator<ResumenEndpoint> comparador = switch (orden) {
+            case "bytes" -> Comparator.comparingLong(ResumenEndpoint::bytesPromedio);
+            case "tiempo" -> Comparator.comparingLong(ResumenEndpoint::msMaximo);
+            case "excesos" -> Comparator.comparingLong(ResumenEndpoint::excesos);
+            case "operaciones" -> Comparator.comparingDouble(ResumenEndpoint::operacionesPromedio);
+            default -> throw new IllegalArgumentException("Orden no soportado: " + orden);
+        };
+        return porEndpoint.entrySet().stream()
+                .map(entrada -> entrada.getValue().resumir(entrada.getKey()))
+                .sorted(comparador.reversed())
+                .limit(limite)
+                .toList();
+    }
+
+    public void reiniciar() {
+        porEndpoint.clear();
+    }
+
+    public record ResumenEndpoint(String endpoint, long peticiones, long excesos, double operacionesPromedio,
+                                  long operacionesMaximo, long bytesPromedio, long bytesMaximo, long msMaximo) {
+    }
+
+    private static class EstadisticaEndpoint {
+
+        private final LongAdder peticiones = new LongAdder();
+        private final LongAdder excesos = new LongAdder();
+        private final LongAdder operaciones = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final AtomicLong operacionesMaximo = new AtomicLong();
+        private final AtomicLong bytesMaximo = new AtomicLong();
+        private final AtomicLong msMaximo = new AtomicLong();
+
+        void sumar(long operaciones, long bytes, long ms, boolean excede) {
+            peticiones.increment();
+            if (excede) {
+                excesos.increment();
+            }
+            this.operaciones.add(operaciones);
+            this.bytes.add(bytes);
+            operacionesMaximo.accumulateAndGet(operaciones, Math::max);
+            bytesMaximo.accumulateAndGet(bytes, Math::max);
+            msMaximo.accumulateAndGet(ms, Math::max);
+        }
+
+        ResumenEndpoint resumir(String endpoint) {
+            long total = Math.max(1, peticiones.sum());
+            return new ResumenEndpoint(endpoint, peticiones.sum(), excesos.sum(),
+                    Math.round(operaciones.sum() * 100.0 / total) / 100.0, operacionesMaximo.get(),
+                    bytes.sum() / total, bytesMaximo.get(), msMaximo.get());
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.example.home_inventory.config;
 import java.util.Arrays;
 import java.util.List;
 
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -14,9 +16,11 @@ import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.core.userdetails.cache.SpringCacheBasedUserCache;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.web.SecurityFilterChain;
@@ -24,6 +28,7 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import com.example.home_inventory.models.User;
 import com.example.home_inventory.repository.UserRepository;
 
 import lombok.AllArgsConstructor;
@@ -34,6 +39,8 @@ public class SecurityConfig {
 
     private final JwtConfig jwtConfig;
     private final UserRepository userRepository;
+    private final CodificadorContrasenas codificadorContrasenas;
+    private final CacheManager cacheManager;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -51,6 +58,12 @@ public class SecurityConfig {
                         .requestMatchers("/api/v1/user/**").permitAll()
                         .requestMatchers("/api/v1/home/**").permitAll()
 
+                        // Actuator vive en su propio puerto (management.server.port), que no se publica fuera de
+                        // la red interna; este matcher no coincide con ninguna peticion del puerto de la API
+                        .requestMatchers(EndpointRequest.toAnyEndpoint()).permitAll()
+                        // Sondas de vida y disponibilidad en el puerto de la API
+                        .requestMatchers("/livez", "/readyz").permitAll()
+
                         // 3. Reglas autenticadas
                         .requestMatchers(HttpMethod.DELETE, "/api/v1/grupos-familiares/**").authenticated()
                         .requestMatchers("/api/v1/grupos-familiares/**").authenticated()
@@ -71,18 +84,17 @@ public class SecurityConfig {
         return NimbusJwtDecoder.withSecretKey(jwtConfig.getSecretKey()).build();
     }
 
-    @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-
     @SuppressWarnings("deprecation")
     @Bean
     AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
 
         authProvider.setUserDetailsService(userDetailsService());
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(codificadorContrasenas);
+        // Rehace el hash en el login cuando fue guardado con otro costo
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService());
+        // Si la contraseña no coincide con el usuario en cache, el proveedor lo vuelve a leer de la base
+        authProvider.setUserCache(userCache());
 
         return authProvider;
     }
@@ -97,4 +109,22 @@ public class SecurityConfig {
         return username -> userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
+
+    @Bean
+    UserCache userCache() {
+        return new SpringCacheBasedUserCache(cacheManager.getCache(CacheConfig.USUARIOS));
+    }
+
+    @Bean
+    UserDetailsPasswordService userDetailsPasswordService() {
+        return (userDetails, nuevoHash) -> {
+            User usuario = userRepository.findByUsername(userDetails.getUsername())
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+            usuario.setPassword(nuevoHash);
+            User actualizado = userRepository.save(usuario);
+            // El proveedor guardo en cache el usuario con el hash anterior
+            userCache().removeUserFromCache(actualizado.getUsername());
+            return actualizado;
+        };
+    }
 }
\ No newline at end of file
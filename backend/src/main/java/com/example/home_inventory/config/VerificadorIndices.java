@@ -0,0 +1,185 @@
+package com.example.home_inventory.config;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Al arrancar revisa cada consulta declarada en los repositorios y pide a Mongo el plan de ejecucion.
+ * Si alguna terminaria en un COLLSCAN lo reporta, o detiene el arranque si
+ * {@code inventario.indices.fallar-si-collscan} esta activo.
+ */
+@Component
+public class VerificadorIndices implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(VerificadorIndices.class);
+
+    private static final String VALOR_EJEMPLO = "x";
+
+    private final ApplicationContext applicationContext;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${inventario.indices.verificar:true}")
+    private boolean verificar;
+
+    @Value("${inventario.indices.fallar-si-collscan:false}")
+    private boolean fallarSiCollscan;
+
+    public VerificadorIndices(ApplicationContext applicationContext, MongoTemplate mongoTemplate) {
+        this.applicationContext = applicationContext;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!verificar) {
+            return;
+        }
+
+        Repositories repositorios = new Repositories(applicationContext);
+        QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        List<String> consultasSinIndice = new ArrayList<>();
+
+        for (Class<?> tipoDominio : repositorios) {
+            RepositoryInformation informacion = repositorios.getRequiredRepositoryInformation(tipoDominio);
+            MongoPersistentEntity<?> entidad = mongoTemplate.getConverter().getMappingContext()
+                    .getRequiredPersistentEntity(tipoDominio);
+
+            for (Method metodo : informacion.getQueryMethods()) {
+                Document filtro = construirFiltro(metodo, tipoDominio);
+                if (filtro == null || filtro.isEmpty()) {
+                    continue;
+                }
+
+                Document filtroMapeado = queryMapper.getMappedObject(filtro, entidad);
+                if (usaCollscan(entidad.getCollection(), filtroMapeado)) {
+                    String consulta = informacion.getRepositoryInterface().getSimpleName() + "." + metodo.getName()
+                            + " " + filtroMapeado.toJson();
+                    consultasSinIndice.add(consulta);
+                    log.warn("La consulta {} se ejecutaria como COLLSCAN sobre '{}'", consulta, entidad.getCollection());
+                }
+            }
+        }
+
+        if (consultasSinIndice.isEmpty()) {
+            log.info("Todas las consultas de los repositorios usan un indice");
+        } else if (fallarSiCollscan) {
+            throw new IllegalStateException("Consultas sin indice: " + consultasSinIndice);
+        }
+    }
+
+    private Document construirFiltro(Method metodo, Class<?> tipoDominio) {
+        if (metodo.isAnnotationPresent(Aggregation.class)) {
+            return null;
+        }
+
+        Query query = metodo.getAnnotation(Query.class);
+        if (query != null && !query.value().isBlank()) {
+            if (query.value().contains("#{")) {
+                return null;
+            }
+            return Document.parse(query.value().replaceAll("\\?\\d+", "\"" + VALOR_EJEMPLO + "\""));
+        }
+
+        PartTree partTree;
+        try {
+            partTree = new PartTree(metodo.getName(), tipoDominio);
+        } catch (RuntimeException e) {
+            // No es una consulta derivada (por ejemplo un fragmento personalizado)
+            return null;
+        }
+
+        List<Criteria> alternativas = new ArrayList<>();
+        for (PartTree.OrPart orPart : partTree) {
+            List<Criteria> condiciones = new ArrayList<>();
+            for (Part part : orPart) {
+                condiciones.add(construirCondicion(part));
+            }
+            alternativas.add(condiciones.size() == 1
+                    ? condiciones.get(0)
+                    : new Criteria().andOperator(condiciones));
+        }
+
+        if (alternativas.isEmpty()) {
+            return null;
+        }
+        Criteria criteria = alternativas.size() == 1
+                ? alternativas.get(0)
+                : new Criteria().orOperator(alternativas);
+        return criteria.getCriteriaObject();
+    }
+
+    private Criteria construirCondicion(Part part) {
+        Criteria criteria = Criteria.where(part.getProperty().toDotPath());
+        Object valor = valorEjemplo(part.getProperty().getLeafType());
+
+        return switch (part.getType()) {
+            case TRUE -> criteria.is(true);
+            case FALSE -> criteria.is(false);
+            case IS_NULL -> criteria.is(null);
+            case IS_NOT_NULL, EXISTS -> criteria.exists(true);
+            case GREATER_THAN, AFTER -> criteria.gt(valor);
+            case GREATER_THAN_EQUAL -> criteria.gte(valor);
+            case LESS_THAN, BEFORE -> criteria.lt(valor);
+            case LESS_THAN_EQUAL -> criteria.lte(valor);
+            case IN, CONTAINING -> criteria.in(valor);
+            default -> criteria.is(valor);
+        };
+    }
+
+    private Object valorEjemplo(Class<?> tipo) {
+        if (Number.class.isAssignableFrom(tipo) || (tipo.isPrimitive() && tipo != boolean.class)) {
+            return 0;
+        }
+        if (tipo == Boolean.class || tipo == boolean.class) {
+            return true;
+        }
+        if (Temporal.class.isAssignableFrom(tipo) || Date.class.isAssignableFrom(tipo)) {
+            return new Date();
+        }
+        return VALOR_EJEMPLO;
+    }
+
+    private boolean usaCollscan(String coleccion, Document filtro) {
+        Document comando = new Document("explain", new Document("find", coleccion).append("filter", filtro))
+                .append("verbosity", "queryPlanner");
+        Document explicacion = mongoTemplate.getDb().runCommand(comando);
+        Document planificador = explicacion.get("queryPlanner", Document.class);
+        return planificador != null && contieneCollscan(planificador.get("winningPlan"));
+    }
+
+    private boolean contieneCollscan(Object nodo) {
+        if (nodo instanceof Map<?, ?> etapa) {
+            if ("COLLSCAN".equals(etapa.get("stage"))) {
+                return true;
+            }
+            return etapa.values().stream().anyMatch(this::contieneCollscan);
+        }
+        if (nodo instanceof List<?> etapas) {
+            return etapas.stream().anyMatch(this::contieneCollscan);
+        }
+        return false;
+    }
+}
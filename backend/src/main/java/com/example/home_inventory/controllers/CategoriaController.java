@@ -3,10 +3,15 @@ package com.example.home_inventory.controllers;
 import com.example.home_inventory.models.Categoria;
 import com.example.home_inventory.services.CategoriaService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
@@ -17,6 +22,9 @@ public class CategoriaController {
     @Autowired
     private CategoriaService categoriaService;
 
+    @Value("${inventario.cache.categorias.max-age-segundos:300}")
+    private long maxAgeSegundos;
+
     @PostMapping
     public ResponseEntity<?> crearCategoria(@RequestBody Map<String, String> request) {
         try {
@@ -33,7 +41,13 @@ public class CategoriaController {
     @GetMapping
     public ResponseEntity<List<Categoria>> obtenerTodasLasCategorias() {
         List<Categoria> categorias = categoriaService.obtenerTodasLasCategorias();
-        return ResponseEntity.ok(categorias);
+
+        // El cliente puede reutilizar su copia durante max-age y despues revalidarla con el ETag (304)
+        String etag = "\"" + DigestUtils.md5DigestAsHex(categorias.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(maxAgeSegundos)).cachePrivate())
+                .eTag(etag)
+                .body(categorias);
     }
 
     @DeleteMapping("/{nombre}")
@@ -1,20 +1,32 @@
 package com.example.home_inventory.controllers;
 
+import com.example.home_inventory.config.CurrentUser;
+import com.example.home_inventory.models.DetalleGrupoDTO;
 import com.example.home_inventory.models.GrupoFamiliarDTO;
-import com.example.home_inventory.models.User;
-import com.example.home_inventory.repository.UserRepository;
+import com.example.home_inventory.models.ResumenGrupoDTO;
+import com.example.home_inventory.models.UserSimpleDTO;
+import com.example.home_inventory.services.EventosGrupoService;
+import com.example.home_inventory.services.ExportacionService;
 import com.example.home_inventory.services.GrupoFamiliarService;
-import com.nimbusds.jwt.JWTClaimsSet;
-import com.nimbusds.jwt.SignedJWT;
+import com.example.home_inventory.services.HidratacionGrupoService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/v1/grupos-familiares")
@@ -24,27 +36,23 @@ public class GrupoFamiliarController {
     private GrupoFamiliarService grupoFamiliarService;
 
     @Autowired
-    private UserRepository userRepository;
+    private ExportacionService exportacionService;
+
+    @Autowired
+    private EventosGrupoService eventosGrupoService;
+
+    @Autowired
+    private HidratacionGrupoService hidratacionGrupoService;
 
     @PostMapping
     public ResponseEntity<?> crearGrupo(
             @RequestBody CrearGrupoRequest request,
-            @RequestHeader("Authorization") String authHeader) {
+            @CurrentUser UserSimpleDTO usuario) {
         try {
-            // Extraer el token del header
-            String token = authHeader.substring(7); // Quita "Bearer "
-
-            // Parsear el token JWT para obtener los claims
-            SignedJWT signedJWT = SignedJWT.parse(token);
-            JWTClaimsSet claims = signedJWT.getJWTClaimsSet();
-
-            // Extraer el username del claim
-            String username = claims.getStringClaim("username");
-
             GrupoFamiliarDTO grupo = grupoFamiliarService.crearGrupo(
                     request.nombre(),
                     request.descripcion(),
-                    username
+                    usuario
             );
             return ResponseEntity.status(HttpStatus.CREATED).body(grupo);
         } catch (Exception e) {
@@ -55,17 +63,9 @@ public class GrupoFamiliarController {
     @DeleteMapping("/{grupoId}")
     public ResponseEntity<?> eliminarGrupo(
             @PathVariable String grupoId,
-            @RequestHeader("Authorization") String authHeader) {
+            @CurrentUser UserSimpleDTO usuario) {
         try {
-            String token = authHeader.substring(7);
-            SignedJWT signedJWT = SignedJWT.parse(token);
-            JWTClaimsSet claims = signedJWT.getJWTClaimsSet();
-            String username = claims.getStringClaim("username");
-
-            User usuario = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-
-            grupoFamiliarService.eliminarGrupo(grupoId, usuario.getId());
+            grupoFamiliarService.eliminarGrupo(grupoId, usuario.id());
             return ResponseEntity.ok("Grupo eliminado exitosamente");
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -76,20 +76,12 @@ public class GrupoFamiliarController {
     public ResponseEntity<?> agregarMiembro(
             @PathVariable String grupoId,
             @RequestBody AgregarMiembroRequest request,
-            @RequestHeader("Authorization") String authHeader) {
+            @CurrentUser UserSimpleDTO solicitante) {
         try {
-            String token = authHeader.substring(7);
-            SignedJWT signedJWT = SignedJWT.parse(token);
-            JWTClaimsSet claims = signedJWT.getJWTClaimsSet();
-            String username = claims.getStringClaim("username");
-
-            User solicitante = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-
             GrupoFamiliarDTO grupo = grupoFamiliarService.agregarMiembro(
                     grupoId,
                     request.username(),
-                    solicitante.getId()
+                    solicitante.id()
             );
             return ResponseEntity.ok(grupo);
         } catch (Exception e) {
@@ -101,17 +93,12 @@ public class GrupoFamiliarController {
     public ResponseEntity<?> eliminarMiembro(
             @PathVariable String grupoId,
             @PathVariable String username,
-            @AuthenticationPrincipal Jwt jwt) {
+            @CurrentUser UserSimpleDTO solicitante) {
         try {
-            String usernameToken = jwt.getClaimAsString("username");
-
-            User solicitante = userRepository.findByUsername(usernameToken)
-                    .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-
             GrupoFamiliarDTO grupo = grupoFamiliarService.eliminarMiembro(
                     grupoId,
                     username,
-                    solicitante.getId()
+                    solicitante.id()
             );
             return ResponseEntity.ok(grupo);
         } catch (Exception e) {
@@ -120,17 +107,9 @@ public class GrupoFamiliarController {
     }
 
     @GetMapping("/mi-grupo")
-    public ResponseEntity<String> obtenerMiGrupo(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<String> obtenerMiGrupo(@CurrentUser UserSimpleDTO user) {
         try {
-            String token = authHeader.substring(7);
-            SignedJWT signedJWT = SignedJWT.parse(token);
-            JWTClaimsSet claims = signedJWT.getJWTClaimsSet();
-            String username = claims.getStringClaim("username");
-
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-
-            String grupoId = grupoFamiliarService.getGrupoFamiliarIdByUser(user.getId());
+            String grupoId = grupoFamiliarService.getGrupoFamiliarIdByUser(user.id());
 
             return ResponseEntity.ok(grupoId);
         } catch (Exception e) {
@@ -139,17 +118,9 @@ public class GrupoFamiliarController {
     }
 
     @GetMapping("/mi-grupo/nombre")
-    public ResponseEntity<?> obtenerNombreMiGrupo(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> obtenerNombreMiGrupo(@CurrentUser UserSimpleDTO user) {
         try {
-            String token = authHeader.substring(7);
-            SignedJWT signedJWT = SignedJWT.parse(token);
-            JWTClaimsSet claims = signedJWT.getJWTClaimsSet();
-            String username = claims.getStringClaim("username");
-
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-
-            Map<String, String> grupoInfo = grupoFamiliarService.getGrupoFamiliarNombreByUser(user.getId());
+            Map<String, String> grupoInfo = grupoFamiliarService.getGrupoFamiliarNombreByUser(user.id());
 
             return ResponseEntity.ok(grupoInfo);
         } catch (Exception e) {
@@ -158,17 +129,9 @@ public class GrupoFamiliarController {
     }
 
     @GetMapping("/mi-grupo/cantidad-productos")
-    public ResponseEntity<?> obtenerCantidadProductosMiGrupo(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> obtenerCantidadProductosMiGrupo(@CurrentUser UserSimpleDTO user) {
         try {
-            String token = authHeader.substring(7);
-            SignedJWT signedJWT = SignedJWT.parse(token);
-            JWTClaimsSet claims = signedJWT.getJWTClaimsSet();
-            String username = claims.getStringClaim("username");
-
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-
-            int cantidadProductos = grupoFamiliarService.getCantidadProductosByUser(user.getId());
+            int cantidadProductos = grupoFamiliarService.getCantidadProductosByUser(user.id());
 
             return ResponseEntity.ok(Map.of("cantidadProductos", cantidadProductos));
         } catch (Exception e) {
@@ -177,17 +140,9 @@ public class GrupoFamiliarController {
     }
 
     @GetMapping("/mi-grupo/cantidad-miembros")
-    public ResponseEntity<?> obtenerCantidadMiembrosMiGrupo(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> obtenerCantidadMiembrosMiGrupo(@CurrentUser UserSimpleDTO user) {
         try {
-            String token = authHeader.substring(7);
-            SignedJWT signedJWT = SignedJWT.parse(token);
-            JWTClaimsSet claims = signedJWT.getJWTClaimsSet();
-            String username = claims.getStringClaim("username");
-
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-
-            int cantidadMiembros = grupoFamiliarService.getCantidadMiembrosByUser(user.getId());
+            int cantidadMiembros = grupoFamiliarService.getCantidadMiembrosByUser(user.id());
 
             return ResponseEntity.ok(Map.of("cantidadMiembros", cantidadMiembros));
         } catch (Exception e) {
@@ -196,17 +151,9 @@ public class GrupoFamiliarController {
     }
 
     @GetMapping("/mi-grupo/miembros")
-    public ResponseEntity<?> obtenerMiembrosMiGrupo(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> obtenerMiembrosMiGrupo(@CurrentUser UserSimpleDTO user) {
         try {
-            String token = authHeader.substring(7);
-            SignedJWT signedJWT = SignedJWT.parse(token);
-            JWTClaimsSet claims = signedJWT.getJWTClaimsSet();
-            String username = claims.getStringClaim("username");
-
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-
-            List<Map<String, String>> miembros = grupoFamiliarService.getUsernamesMiembrosByUser(user.getId());
+            List<Map<String, String>> miembros = grupoFamiliarService.getUsernamesMiembrosByUser(user.id());
 
             return ResponseEntity.ok(Map.of("miembros", miembros));
         } catch (Exception e) {
@@ -215,22 +162,95 @@ public class GrupoFamiliarController {
     }
 
     @GetMapping("/mi-grupo/es-creador")
-    public ResponseEntity<?> esCreadorMiGrupo(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> esCreadorMiGrupo(@CurrentUser UserSimpleDTO user) {
         try {
-            String token = authHeader.substring(7);
-            SignedJWT signedJWT = SignedJWT.parse(token);
-            JWTClaimsSet claims = signedJWT.getJWTClaimsSet();
-            String username = claims.getStringClaim("username");
+            boolean esCreador = grupoFamiliarService.isCreador(user.id());
 
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+            return ResponseEntity.ok(Map.of("esCreador", esCreador));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
 
-            boolean esCreador = grupoFamiliarService.isCreador(user.getId());
+    @GetMapping("/mi-grupo/resumen")
+    public ResponseEntity<?> obtenerResumenMiGrupo(@CurrentUser UserSimpleDTO user) {
+        try {
+            ResumenGrupoDTO resumen = grupoFamiliarService.getResumenByUser(user.id());
+
+            // Con el ETag, Spring responde 304 si coincide con el If-None-Match del cliente
+            String etag = "\"" + DigestUtils.md5DigestAsHex(resumen.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .eTag(etag)
+                    .body(resumen);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
 
-            return ResponseEntity.ok(Map.of("esCreador", esCreador));
+    // Ejemplo: /mi-grupo/detalle?incluir=lugares,listas; solo se cargan las secciones pedidas
+    @GetMapping("/mi-grupo/detalle")
+    public ResponseEntity<?> obtenerDetalleMiGrupo(
+            @CurrentUser UserSimpleDTO user,
+            @RequestParam(defaultValue = "") Set<String> incluir) {
+        try {
+            DetalleGrupoDTO detalle = hidratacionGrupoService.getDetalleByUser(user.id(), incluir);
+            return ResponseEntity.ok(detalle);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/mi-grupo/exportar")
+    public ResponseEntity<?> exportarMiGrupo(
+            @CurrentUser UserSimpleDTO user,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        String grupoId;
+        try {
+            grupoId = grupoFamiliarService.getGrupoFamiliarIdByUser(user.id());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
+
+        // El cuerpo se escribe directamente desde los cursores de Mongo hacia la respuesta
+        StreamingResponseBody cuerpo = salida -> {
+            if (gzip) {
+                try (OutputStream comprimida = new GZIPOutputStream(salida, true)) {
+                    exportacionService.exportarInventario(grupoId, comprimida);
+                }
+            } else {
+                exportacionService.exportarInventario(grupoId, salida);
+            }
+        };
+
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("inventario-" + grupoId + ".ndjson")
+                        .build()
+                        .toString());
+        if (gzip) {
+            respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return respuesta.body(cuerpo);
+    }
+
+    @GetMapping("/mi-grupo/eventos")
+    public ResponseEntity<?> eventosMiGrupo(@CurrentUser UserSimpleDTO user) {
+        String grupoId;
+        try {
+            grupoId = grupoFamiliarService.getGrupoFamiliarIdByUser(user.id());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body("Error: " + e.getMessage());
+        }
+
+        SseEmitter emitter = eventosGrupoService.suscribir(grupoId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .cacheControl(CacheControl.noStore())
+                // Evita que un proxy intermedio acumule los eventos antes de enviarlos
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
     }
 
     private record CrearGrupoRequest(String nombre, String descripcion) {}
@@ -1,11 +1,9 @@
 package com.example.home_inventory.controllers;
 
+import com.example.home_inventory.config.CurrentUser;
 import com.example.home_inventory.models.ListaCompra;
-import com.example.home_inventory.models.User;
-import com.example.home_inventory.repository.UserRepository;
+import com.example.home_inventory.models.UserSimpleDTO;
 import com.example.home_inventory.services.ListaCompraService;
-import com.nimbusds.jwt.JWTClaimsSet;
-import com.nimbusds.jwt.SignedJWT;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -23,29 +21,12 @@ public class ListaCompraController {
     @Autowired
     private ListaCompraService listaCompraService;
 
-    @Autowired
-    private UserRepository userRepository;
-
     @PostMapping
     public ResponseEntity<?> crearLista(
             @RequestBody ListaCompra listaCompra,
-            @RequestHeader("Authorization") String authHeader) {
+            @CurrentUser UserSimpleDTO usuario) {
         try {
-            // Extraer el token del header
-            String token = authHeader.substring(7);
-
-            // Parsear el token JWT para obtener los claims
-            SignedJWT signedJWT = SignedJWT.parse(token);
-            JWTClaimsSet claims = signedJWT.getJWTClaimsSet();
-
-            // Extraer el username del claim
-            String username = claims.getStringClaim("username");
-
-            // Obtener el userId del usuario autenticado
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-
-            ListaCompra lista = listaCompraService.crearLista(listaCompra, user.getId());
+            ListaCompra lista = listaCompraService.crearLista(listaCompra, usuario.id());
             return ResponseEntity.ok(lista);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
@@ -120,6 +101,29 @@ public class ListaCompraController {
         }
     }
 
+    @DeleteMapping("/{listaId}/elementos/{elementoId}")
+    public ResponseEntity<ListaCompra> eliminarElemento(
+            @PathVariable String listaId,
+            @PathVariable String elementoId) {
+        try {
+            return ResponseEntity.ok(listaCompraService.eliminarElementoLista(listaId, elementoId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PatchMapping("/{listaId}/elementos/{elementoId}/comprado")
+    public ResponseEntity<ListaCompra> marcarElementoComprado(
+            @PathVariable String listaId,
+            @PathVariable String elementoId,
+            @RequestBody MarcarCompradoRequest request) {
+        try {
+            return ResponseEntity.ok(listaCompraService.marcarElementoComprado(listaId, elementoId, request.isComprado()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @Data
     @AllArgsConstructor
     @NoArgsConstructor
@@ -2,7 +2,8 @@ package com.example.home_inventory.controllers;
 
 import java.util.List;
 
-import com.example.home_inventory.models.Producto;
+import com.example.home_inventory.models.FiltroProductos;
+import com.example.home_inventory.models.PaginaProductos;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -15,6 +16,7 @@ import org.springframework.web.bind.annotation.*;
 
 import com.example.home_inventory.models.Lugar;
 import com.example.home_inventory.services.LugarService;
+import com.example.home_inventory.services.ProductoService;
 
 @RestController
 @RequestMapping("/api/v1/lugares")
@@ -23,6 +25,9 @@ public class LugarController {
     @Autowired
     private LugarService lugarService;
 
+    @Autowired
+    private ProductoService productoService;
+
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Lugar> crearLugar(@RequestBody @Valid CrearLugarRequest request) {
         Lugar lugar = lugarService.crearLugar(
@@ -61,12 +66,30 @@ public class LugarController {
     }
 
     @GetMapping("/{lugarId}/productos")
-    public ResponseEntity<List<Producto>> obtenerProductos(@PathVariable String lugarId) {
+    public ResponseEntity<?> obtenerProductos(
+            @PathVariable String lugarId,
+            @RequestParam(defaultValue = "nombre") String orden,
+            @RequestParam(defaultValue = "asc") String direccion,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limite) {
+        String grupoFamiliarId;
         try {
-            List<Producto> productos = lugarService.obtenerProductos(lugarId);
-            return ResponseEntity.ok(productos);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            grupoFamiliarId = lugarService.obtenerGrupoFamiliarId(lugarId);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+
+        try {
+            PaginaProductos pagina = productoService.buscarProductos(
+                    grupoFamiliarId,
+                    new FiltroProductos(null, lugarId, null, false),
+                    orden,
+                    "desc".equalsIgnoreCase(direccion),
+                    cursor,
+                    limite);
+            return ResponseEntity.ok(pagina);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
     }
 
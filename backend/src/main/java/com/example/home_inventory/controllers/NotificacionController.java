@@ -1,13 +1,14 @@
 package com.example.home_inventory.controllers;
 
-import com.example.home_inventory.models.Notificacion;
+import com.example.home_inventory.config.CurrentUser;
+import com.example.home_inventory.models.UserSimpleDTO;
+import com.example.home_inventory.services.GrupoFamiliarService;
 import com.example.home_inventory.services.NotificacionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/v1/notificaciones")
 public class NotificacionController {
@@ -15,20 +16,45 @@ public class NotificacionController {
     @Autowired
     private NotificacionService notificacionService;
 
+    @Autowired
+    private GrupoFamiliarService grupoFamiliarService;
+
     @GetMapping
-    public ResponseEntity<List<Notificacion>> obtenerNotificaciones() {
-        return ResponseEntity.ok(notificacionService.obtenerNotificacionesNoLeidas());
+    public ResponseEntity<?> obtenerNotificaciones(
+            @CurrentUser UserSimpleDTO usuario,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limite) {
+        try {
+            String grupoFamiliarId = grupoFamiliarService.getGrupoFamiliarIdByUser(usuario.id());
+            return ResponseEntity.ok(notificacionService.obtenerNotificacionesNoLeidas(grupoFamiliarId, cursor, limite));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
     }
 
     @PutMapping("/{id}/leer")
-    public ResponseEntity<String> marcarComoLeida(@PathVariable String id) {
-        notificacionService.marcarComoLeida(id);
-        return ResponseEntity.ok("Notificación marcada como leída");
+    public ResponseEntity<String> marcarComoLeida(@CurrentUser UserSimpleDTO usuario, @PathVariable String id) {
+        try {
+            String grupoFamiliarId = grupoFamiliarService.getGrupoFamiliarIdByUser(usuario.id());
+            if (!notificacionService.marcarComoLeida(id, grupoFamiliarId)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Notificación no encontrada");
+            }
+            return ResponseEntity.ok("Notificación marcada como leída");
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
     }
 
     @PutMapping("/leer-todas")
-    public ResponseEntity<String> marcarTodasComoLeidas() {
-        notificacionService.marcarTodasComoLeidas();
-        return ResponseEntity.ok("Todas las notificaciones han sido marcadas como leídas");
+    public ResponseEntity<String> marcarTodasComoLeidas(@CurrentUser UserSimpleDTO usuario) {
+        try {
+            String grupoFamiliarId = grupoFamiliarService.getGrupoFamiliarIdByUser(usuario.id());
+            notificacionService.marcarTodasComoLeidas(grupoFamiliarId);
+            return ResponseEntity.ok("Todas las notificaciones han sido marcadas como leídas");
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
     }
 }
@@ -1,13 +1,24 @@
 package com.example.home_inventory.controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import com.example.home_inventory.config.CurrentUser;
+import com.example.home_inventory.models.FiltroProductos;
+import com.example.home_inventory.models.PaginaProductos;
+import com.example.home_inventory.models.ProductoEntrada;
+import com.example.home_inventory.models.ResultadoImportacion;
+import com.example.home_inventory.models.UserSimpleDTO;
+import com.example.home_inventory.services.GrupoFamiliarService;
+import com.example.home_inventory.services.ImportacionProductoService;
+import com.example.home_inventory.services.ProductoValidador;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -22,9 +33,47 @@ public class ProductoController {
     @Autowired
     private ProductoService productoService;
 
+    @Autowired
+    private GrupoFamiliarService grupoFamiliarService;
+
+    @Autowired
+    private ImportacionProductoService importacionProductoService;
+
     @GetMapping
-    public ResponseEntity<List<Producto>> getProductos() {
-        return new ResponseEntity<List<Producto>>(productoService.findAllLugares(), HttpStatus.OK);
+    public ResponseEntity<?> getProductos(
+            @CurrentUser UserSimpleDTO usuario,
+            @RequestParam(required = false) String categoria,
+            @RequestParam(required = false) String lugarId,
+            @RequestParam(required = false) String venceAntes,
+            @RequestParam(defaultValue = "false") boolean bajoMinimo,
+            @RequestParam(defaultValue = "nombre") String orden,
+            @RequestParam(defaultValue = "asc") String direccion,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limite) {
+        LocalDate fechaLimite = null;
+        if (venceAntes != null) {
+            try {
+                fechaLimite = LocalDate.parse(venceAntes, DateTimeFormatter.ofPattern("dd-MM-yyyy"));
+            } catch (DateTimeParseException e) {
+                return new ResponseEntity<>("El formato de fecha dd-MM-yyyy es incorrecto", HttpStatus.BAD_REQUEST);
+            }
+        }
+
+        try {
+            String grupoFamiliarId = grupoFamiliarService.getGrupoFamiliarIdByUser(usuario.id());
+            PaginaProductos pagina = productoService.buscarProductos(
+                    grupoFamiliarId,
+                    new FiltroProductos(categoria, lugarId, fechaLimite, bajoMinimo),
+                    orden,
+                    "desc".equalsIgnoreCase(direccion),
+                    cursor,
+                    limite);
+            return ResponseEntity.ok(pagina);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
     }
 
     @GetMapping("/{nombre}")
@@ -34,49 +83,52 @@ public class ProductoController {
 
     @PostMapping(value = "/lugares/{lugarId}", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> createProducto(@PathVariable String lugarId, @RequestBody Map<String, String> payload) {
-        if (payload == null || payload.get("nombre") == null || payload.get("nombre").isBlank()) {
-            return new ResponseEntity<>("El nombre es obligatorio", HttpStatus.BAD_REQUEST);
-        }
-
-        // parse integers safely
-        int cantidad = 0;
-        int cantidadMinima = 0;
+        ProductoEntrada entrada;
         try {
-            if (payload.get("cantidad") != null)
-                cantidad = Integer.parseInt(payload.get("cantidad"));
-            if (payload.get("cantidadMinima") != null)
-                cantidadMinima = Integer.parseInt(payload.get("cantidadMinima"));
-        } catch (NumberFormatException e) {
-            return new ResponseEntity<>("Formato de número inválido", HttpStatus.BAD_REQUEST);
-        }
-
-        //cantidad debe ser >= cantidadMinima
-        if (cantidad < cantidadMinima) {
-            return new ResponseEntity<>("La cantidad no puede ser menor a la cantidad mínima", HttpStatus.BAD_REQUEST);
-        }
-
-        // parse date with expected format dd-MM-yyyy (e.g. 10-10-2025)
-        LocalDate expiracion = null;
-        if (payload.get("expiracion") != null) {
-            try {
-                DateTimeFormatter fmt = DateTimeFormatter.ofPattern("dd-MM-yyyy");
-                expiracion = LocalDate.parse(payload.get("expiracion"), fmt);
-            } catch (DateTimeParseException e) {
-                return new ResponseEntity<>("El formato de fecha dd-MM-yyyy es incorrecto", HttpStatus.BAD_REQUEST);
-            }
+            entrada = ProductoValidador.validar(payload);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
         }
 
         Producto created = productoService.createProducto(
-                payload.get("nombre"),
-                payload.get("descripcion"),
-                cantidad,
-                cantidadMinima,
-                expiracion,
+                entrada.nombre(),
+                entrada.descripcion(),
+                entrada.cantidad(),
+                entrada.cantidadMinima(),
+                entrada.expiracion(),
                 lugarId);
 
         return new ResponseEntity<Producto>(created, HttpStatus.OK);
     }
 
+    @PostMapping(value = "/importar", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> importarProductos(
+            @CurrentUser UserSimpleDTO usuario,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(required = false) String lugarId,
+            @RequestParam(required = false) Integer tamanoLote,
+            InputStream cuerpo) {
+        String formato = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? ImportacionProductoService.FORMATO_NDJSON
+                : ImportacionProductoService.FORMATO_CSV;
+        String grupoFamiliarId;
+        try {
+            grupoFamiliarId = grupoFamiliarService.getGrupoFamiliarIdByUser(usuario.id());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+        // Cualquier otro error de la importacion (por ejemplo de Mongo) se propaga como 500
+        try {
+            ResultadoImportacion resultado = importacionProductoService.importar(
+                    grupoFamiliarId, lugarId, formato, tamanoLote, cuerpo);
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("No se pudo leer el archivo");
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<String> deleteProductoById(@PathVariable String id) {
         boolean deleted = productoService.deleteProductoById(id);
@@ -6,6 +6,8 @@ import com.example.home_inventory.models.User;
 import com.example.home_inventory.models.UserDto;
 import com.example.home_inventory.services.UserService;
 import lombok.AllArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -21,13 +23,18 @@ public class UserController {
     private final UserService userService;
 
     @PostMapping("/signup")
-    public ResponseEntity<User> register(
+    public ResponseEntity<?> register(
             @RequestParam String username,
             @RequestParam String email,
             @RequestParam String password) throws IOException {
         UserDto registerUserDto = new UserDto(username, email, password);
-        User registeredUser = userService.registerUser(registerUserDto);
-        return ResponseEntity.ok(registeredUser);
+        try {
+            User registeredUser = userService.registerUser(registerUserDto);
+            return ResponseEntity.ok(registeredUser);
+        } catch (DuplicateKeyException e) {
+            // Indice unico de username
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("El nombre de usuario ya está en uso");
+        }
     }
 
     @PostMapping("/signin")
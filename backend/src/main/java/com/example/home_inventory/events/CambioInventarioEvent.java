@@ -0,0 +1,24 @@
+package com.example.home_inventory.events;
+
+import java.util.Map;
+
+/**
+ * Cambio sobre un lugar o una lista de compra que se reenvia a los miembros conectados del grupo.
+ *
+ * @param grupoFamiliarId grupo al que pertenece la entidad
+ * @param entidad         "lugar" o "lista"
+ * @param tipo            "creado", "actualizado" o "eliminado"
+ * @param entidadId       id de la entidad modificada
+ * @param campos          campos cambiados con su nuevo valor; {@code null} si el cliente debe pedir la entidad
+ */
+public record CambioInventarioEvent(
+        String grupoFamiliarId,
+        String entidad,
+        String tipo,
+        String entidadId,
+        Map<String, Object> campos
+) {
+    public static final String CREADO = "creado";
+    public static final String ACTUALIZADO = "actualizado";
+    public static final String ELIMINADO = "eliminado";
+}
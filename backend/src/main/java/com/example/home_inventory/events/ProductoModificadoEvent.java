@@ -0,0 +1,16 @@
+package com.example.home_inventory.events;
+
+import com.example.home_inventory.models.Producto;
+
+/**
+ * Se publica cada vez que un producto se crea, cambia o se elimina.
+ *
+ * @param anterior estado previo del producto, {@code null} si es nuevo
+ * @param actual   estado resultante, {@code null} si se elimino
+ */
+public record ProductoModificadoEvent(Producto anterior, Producto actual) {
+
+    public String productoId() {
+        return actual != null ? actual.getId() : anterior.getId();
+    }
+}
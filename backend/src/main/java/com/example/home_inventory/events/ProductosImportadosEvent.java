@@ -0,0 +1,14 @@
+package com.example.home_inventory.events;
+
+import com.example.home_inventory.models.Producto;
+
+import java.util.List;
+
+/**
+ * Se publica una vez por lote de productos importados, en lugar de un {@link ProductoModificadoEvent} por fila.
+ *
+ * @param grupoFamiliarId grupo al que pertenecen los productos
+ * @param productos       productos insertados en el lote
+ */
+public record ProductosImportadosEvent(String grupoFamiliarId, List<Producto> productos) {
+}
@@ -0,0 +1,14 @@
+package com.example.home_inventory.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proyeccion de GrupoFamiliar con solo los datos descriptivos.
+ */
+public interface DatosBasicosGrupo {
+    String getNombre();
+
+    String getDescripcion();
+
+    LocalDateTime getFechaCreacion();
+}
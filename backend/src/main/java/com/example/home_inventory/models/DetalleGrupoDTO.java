@@ -0,0 +1,17 @@
+package com.example.home_inventory.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Grupo familiar con las secciones pedidas en {@code incluir}; las que no se pidieron no se cargan ni se envian.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DetalleGrupoDTO(
+        GrupoFamiliarDTO grupo,
+        List<Lugar> lugares,
+        List<Producto> productos,
+        List<ListaCompra> listasCompra
+) {
+}
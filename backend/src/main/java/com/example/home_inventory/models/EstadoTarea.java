@@ -0,0 +1,25 @@
+package com.example.home_inventory.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+
+/**
+ * Avance de una tarea programada que debe sobrevivir a los reinicios, por ejemplo el ultimo dia de expiracion
+ * revisado por las notificaciones. Un documento por tarea.
+ */
+@Document(collection = "EstadoTarea")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EstadoTarea {
+
+    @Id
+    private String id;
+
+    private LocalDate ultimaFecha;
+}
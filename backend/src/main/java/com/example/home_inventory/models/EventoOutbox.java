@@ -0,0 +1,34 @@
+package com.example.home_inventory.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Cambio de un producto pendiente de reflejarse en la copia embebida de su lugar. Se guarda en la misma
+ * transaccion que el producto y lo aplica {@code RelayOutboxService}.
+ */
+@Document(collection = "Outbox")
+@CompoundIndex(name = "disponibleDesde_fechaCreacion", def = "{ 'disponibleDesde': 1, 'fechaCreacion': 1 }")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EventoOutbox {
+
+    @Id
+    private String id;
+
+    private String productoId;
+
+    private Instant fechaCreacion;
+
+    // Hasta entonces el evento esta reservado por un relay o esperando un reintento
+    private Instant disponibleDesde;
+
+    private int intentos;
+}
@@ -0,0 +1,11 @@
+package com.example.home_inventory.models;
+
+import java.time.LocalDate;
+
+public record FiltroProductos(
+        String categoria,
+        String lugarId,
+        LocalDate venceAntes,
+        boolean bajoMinimo
+) {
+}
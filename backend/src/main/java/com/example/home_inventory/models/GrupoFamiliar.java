@@ -1,10 +1,10 @@
 package com.example.home_inventory.models;
 
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -12,6 +12,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Document(collection = "GrupoFamiliar")
+// Los indices unicos de nombre y miembros._id (un usuario en un solo grupo) los crea IndicesMongo
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -20,6 +21,10 @@ public class GrupoFamiliar {
     @Id
     private String id;
 
+    // Control de concurrencia optimista: cada escritura lo incrementa
+    @Version
+    private Long version;
+
     private String nombre;
 
     private String descripcion;
@@ -30,11 +35,10 @@ public class GrupoFamiliar {
 
     private String creadorId;
 
-    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
-    private List<Lugar> lugares = new ArrayList<>();
+    // Solo referencias: los lugares y listas viven en sus propias colecciones
+    private List<String> lugarIds = new ArrayList<>();
 
-    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
-    private List<ListaCompra> ListasCompra = new ArrayList<>();
+    private List<String> listaCompraIds = new ArrayList<>();
 
     @Data
     @AllArgsConstructor
@@ -0,0 +1,55 @@
+package com.example.home_inventory.models;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Vista de un grupo familiar que carga sus lugares, productos y listas solo cuando se piden.
+ * No es segura entre hilos: esta pensada para usarse dentro de una misma solicitud.
+ */
+public class GrupoFamiliarHidratado {
+
+    private final GrupoFamiliar grupo;
+    private final Supplier<List<Lugar>> cargadorLugares;
+    private final Supplier<List<Producto>> cargadorProductos;
+    private final Supplier<List<ListaCompra>> cargadorListas;
+
+    private List<Lugar> lugares;
+    private List<Producto> productos;
+    private List<ListaCompra> listasCompra;
+
+    public GrupoFamiliarHidratado(GrupoFamiliar grupo,
+                                  Supplier<List<Lugar>> cargadorLugares,
+                                  Supplier<List<Producto>> cargadorProductos,
+                                  Supplier<List<ListaCompra>> cargadorListas) {
+        this.grupo = grupo;
+        this.cargadorLugares = cargadorLugares;
+        this.cargadorProductos = cargadorProductos;
+        this.cargadorListas = cargadorListas;
+    }
+
+    public GrupoFamiliar getGrupo() {
+        return grupo;
+    }
+
+    public List<Lugar> getLugares() {
+        if (lugares == null) {
+            lugares = cargadorLugares.get();
+        }
+        return lugares;
+    }
+
+    public List<Producto> getProductos() {
+        if (productos == null) {
+            productos = cargadorProductos.get();
+        }
+        return productos;
+    }
+
+    public List<ListaCompra> getListasCompra() {
+        if (listasCompra == null) {
+            listasCompra = cargadorListas.get();
+        }
+        return listasCompra;
+    }
+}
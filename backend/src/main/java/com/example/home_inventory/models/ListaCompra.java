@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -19,12 +21,16 @@ public class ListaCompra {
     @Id
     private String id;
 
+    @Version
+    private Long version;
+
     private String nombre;
 
     private String descripcion;
 
     private LocalDateTime fechaCreacion;
 
+    @Indexed
     private String grupoFamiliarId;
 
     private List<ProductoLista> productosLista = new ArrayList<>();
@@ -33,6 +39,8 @@ public class ListaCompra {
     @AllArgsConstructor
     @NoArgsConstructor
     public static class ProductoLista {
+        // Se guarda como _id del elemento para poder modificarlo con el operador posicional
+        private String id;
         private String nombre;
         private String cantidad;
         private String unidad;
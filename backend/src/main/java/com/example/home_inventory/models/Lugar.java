@@ -7,10 +7,14 @@ import java.util.List;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DocumentReference;
 
 @Document(collection = "Lugar")
+@CompoundIndex(name = "productos_id", def = "{ 'productos._id': 1 }")
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -19,12 +23,17 @@ public class Lugar {
     @Id
     private String id;
 
+    @Version
+    private Long version;
+
+    @Indexed
     private String nombre;
 
     private String descripcion;
 
     private LocalDateTime fechaCreacion;
 
+    @Indexed
     private String grupoFamiliarId;
 
     @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
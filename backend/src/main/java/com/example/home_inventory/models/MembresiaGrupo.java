@@ -0,0 +1,13 @@
+package com.example.home_inventory.models;
+
+import java.util.List;
+
+/**
+ * Lo minimo del grupo familiar de un usuario que se necesita para autorizar y resolver su grupo.
+ */
+public record MembresiaGrupo(
+        String grupoFamiliarId,
+        String creadorId,
+        List<String> miembroIds
+) {
+}
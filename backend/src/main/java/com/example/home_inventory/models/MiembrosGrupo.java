@@ -0,0 +1,10 @@
+package com.example.home_inventory.models;
+
+import java.util.List;
+
+/**
+ * Proyeccion de GrupoFamiliar con solo la lista de miembros.
+ */
+public interface MiembrosGrupo {
+    List<GrupoFamiliar.MiembroInfo> getMiembros();
+}
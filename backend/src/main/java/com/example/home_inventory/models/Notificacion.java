@@ -4,11 +4,17 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
 @Document(collection = "Notificacion")
+// Como maximo una notificacion por producto y tipo
+@CompoundIndex(name = "productoId_tipo", def = "{ 'productoId': 1, 'tipo': 1 }", unique = true)
+// Consulta de no leidas por grupo, ya ordenada por fecha y con _id como desempate del cursor
+@CompoundIndex(name = "grupoFamiliarId_leida_fechaCreacion",
+        def = "{ 'grupoFamiliarId': 1, 'leida': 1, 'fechaCreacion': -1, '_id': -1 }")
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -19,6 +25,8 @@ public class Notificacion {
 
     private String productoId;
 
+    private String grupoFamiliarId;
+
     private String mensaje;
 
     private String tipo; // "CANTIDAD_BAJA" o "EXPIRACION_PROXIMA"
@@ -0,0 +1,9 @@
+package com.example.home_inventory.models;
+
+import java.util.List;
+
+public record PaginaNotificaciones(
+        List<Notificacion> notificaciones,
+        String siguienteCursor
+) {
+}
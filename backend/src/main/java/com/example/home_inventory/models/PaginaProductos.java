@@ -0,0 +1,9 @@
+package com.example.home_inventory.models;
+
+import java.util.List;
+
+public record PaginaProductos(
+        List<Producto> productos,
+        String siguienteCursor
+) {
+}
@@ -27,4 +27,8 @@ public class Producto {
     private LocalDate expiracion;
 
     private Categoria categoria;
+
+    private String lugarId;
+
+    private String grupoFamiliarId;
 }
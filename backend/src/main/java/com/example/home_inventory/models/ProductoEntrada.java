@@ -0,0 +1,12 @@
+package com.example.home_inventory.models;
+
+import java.time.LocalDate;
+
+public record ProductoEntrada(
+        String nombre,
+        String descripcion,
+        int cantidad,
+        int cantidadMinima,
+        LocalDate expiracion
+) {
+}
@@ -0,0 +1,12 @@
+package com.example.home_inventory.models;
+
+import java.util.List;
+
+public record ResultadoImportacion(
+        int filasProcesadas,
+        int insertados,
+        List<ErrorFila> errores
+) {
+    public record ErrorFila(int fila, String mensaje) {
+    }
+}
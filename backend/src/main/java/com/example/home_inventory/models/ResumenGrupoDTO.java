@@ -0,0 +1,20 @@
+package com.example.home_inventory.models;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record ResumenGrupoDTO(
+        String id,
+        String nombre,
+        String descripcion,
+        LocalDateTime fechaCreacion,
+        List<UserSimpleDTO> miembros,
+        int cantidadMiembros,
+        boolean esCreador,
+        int cantidadLugares,
+        int cantidadListas,
+        int cantidadProductos,
+        int productosBajoStock,
+        int productosPorVencer
+) {
+}
@@ -24,6 +24,7 @@ public class User implements UserDetails {
     @Id
     private String id;
 
+    // Indice unico creado por IndicesMongo
     private String username;
 
     private String email;
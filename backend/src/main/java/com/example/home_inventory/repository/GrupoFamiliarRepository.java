@@ -1,6 +1,8 @@
 package com.example.home_inventory.repository;
 
+import com.example.home_inventory.models.DatosBasicosGrupo;
 import com.example.home_inventory.models.GrupoFamiliar;
+import com.example.home_inventory.models.MiembrosGrupo;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -10,9 +12,17 @@ import java.util.Optional;
 @Repository
 public interface GrupoFamiliarRepository extends MongoRepository<GrupoFamiliar, String> {
     Optional<GrupoFamiliar> findByNombre(String nombre);
-    Optional<GrupoFamiliar> findByMiembrosContaining(String usuarioId);
 
     @Query("{ 'miembros.id': ?0 }")
     Optional<GrupoFamiliar> findByMiembroId(String userId);
 
+    @Query(value = "{ 'miembros.id': ?0 }", exists = true)
+    boolean existsByMiembroId(String userId);
+
+    // Las proyecciones solo traen los campos indicados en lugar del documento completo
+    @Query(value = "{ 'miembros.id': ?0 }", fields = "{ 'nombre': 1, 'descripcion': 1, 'fechaCreacion': 1 }")
+    Optional<DatosBasicosGrupo> findDatosBasicosByMiembroId(String userId);
+
+    @Query(value = "{ 'miembros.id': ?0 }", fields = "{ 'miembros': 1 }")
+    Optional<MiembrosGrupo> findMiembrosByMiembroId(String userId);
 }
@@ -11,4 +11,6 @@ import com.example.home_inventory.models.Producto;
 @Repository
 public interface ProductoRepository extends MongoRepository<Producto, String> {
     Optional<Producto> findByNombre(@Param("nombre") String nombre);
+
+    long countByGrupoFamiliarId(String grupoFamiliarId);
 }
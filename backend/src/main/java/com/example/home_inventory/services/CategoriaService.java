@@ -1,19 +1,25 @@
 package com.example.home_inventory.services;
 
+import com.example.home_inventory.config.CacheConfig;
 import com.example.home_inventory.models.Categoria;
 import com.example.home_inventory.repository.CategoriaRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
 
 @Service
+@Timed(value = "inventario.servicio", histogram = true)
 public class CategoriaService {
 
     @Autowired
     private CategoriaRepository categoriaRepository;
 
+    @CacheEvict(cacheNames = {CacheConfig.CATEGORIAS, CacheConfig.CATEGORIA_POR_NOMBRE}, allEntries = true)
     public Categoria crearCategoria(String nombre, String descripcion) {
         String nombreNormalizado = nombre.toLowerCase().trim();
 
@@ -29,10 +35,22 @@ public class CategoriaService {
         return categoriaRepository.save(categoria);
     }
 
+    @Cacheable(CacheConfig.CATEGORIAS)
     public List<Categoria> obtenerTodasLasCategorias() {
-        return categoriaRepository.findAll();
+        // Inmutable porque la misma instancia se comparte entre solicitudes
+        return List.copyOf(categoriaRepository.findAll());
     }
 
+    /**
+     * Busca una categoria por su nombre ya normalizado. Tambien se cachea cuando no existe,
+     * la entrada se invalida al crear o eliminar categorias.
+     */
+    @Cacheable(cacheNames = CacheConfig.CATEGORIA_POR_NOMBRE, key = "#nombreNormalizado")
+    public Optional<Categoria> buscarPorNombre(String nombreNormalizado) {
+        return categoriaRepository.findByNombre(nombreNormalizado);
+    }
+
+    @CacheEvict(cacheNames = {CacheConfig.CATEGORIAS, CacheConfig.CATEGORIA_POR_NOMBRE}, allEntries = true)
     public void eliminarCategoriaPorNombre(String nombre) {
         String nombreNormalizado = nombre.toLowerCase().trim();
 
@@ -0,0 +1,236 @@
+package com.example.home_inventory.services;
+
+import com.example.home_inventory.events.CambioInventarioEvent;
+import com.example.home_inventory.events.ProductoModificadoEvent;
+import com.example.home_inventory.events.ProductosImportadosEvent;
+import com.example.home_inventory.models.Producto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * Canal Server-Sent Events por grupo familiar. Cada conexion tiene su propia cola y un hilo virtual que la
+ * vacia, asi un cliente lento no retrasa al resto y los eventos llegan a cada cliente en orden. El evento se
+ * serializa una sola vez y se reparte a todas las conexiones del grupo. Cada evento lleva el tipo, el id y
+ * solo los campos cambiados; la entidad completa la pide el cliente.
+ */
+@Service
+@Timed(value = "inventario.servicio", histogram = true)
+public class EventosGrupoService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(EventosGrupoService.class);
+
+    private static final String LATIDO = "latido";
+
+    private static final Map<String, Function<Producto, Object>> CAMPOS_PRODUCTO = new LinkedHashMap<>();
+
+    static {
+        CAMPOS_PRODUCTO.put("nombre", Producto::getNombre);
+        CAMPOS_PRODUCTO.put("descripcion", Producto::getDescripcion);
+        CAMPOS_PRODUCTO.put("cantidad", Producto::getCantidad);
+        CAMPOS_PRODUCTO.put("cantidadMinima", Producto::getCantidadMinima);
+        CAMPOS_PRODUCTO.put("expiracion", Producto::getExpiracion);
+        CAMPOS_PRODUCTO.put("categoria", Producto::getCategoria);
+        CAMPOS_PRODUCTO.put("lugarId", Producto::getLugarId);
+    }
+
+    private final Map<String, List<Suscripcion>> suscripciones = new ConcurrentHashMap<>();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${inventario.eventos.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${inventario.eventos.capacidad-cola:256}")
+    private int capacidadCola;
+
+    public SseEmitter suscribir(String grupoFamiliarId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Suscripcion suscripcion = new Suscripcion(grupoFamiliarId, emitter, new ArrayBlockingQueue<>(capacidadCola));
+
+        // compute es atomico por grupo: la lista no puede quitarse del mapa mientras se agrega la conexion
+        suscripciones.compute(grupoFamiliarId, (id, lista) -> {
+            List<Suscripcion> resultado = lista != null ? lista : new CopyOnWriteArrayList<>();
+            resultado.add(suscripcion);
+            return resultado;
+        });
+
+        emitter.onCompletion(suscripcion::cerrar);
+        emitter.onTimeout(suscripcion::cerrar);
+        emitter.onError(e -> suscripcion.cerrar());
+        suscripcion.hilo = Thread.ofVirtual().name("sse-" + grupoFamiliarId).start(suscripcion);
+        return emitter;
+    }
+
+    public int getConexiones(String grupoFamiliarId) {
+        List<Suscripcion> lista = suscripciones.get(grupoFamiliarId);
+        return lista != null ? lista.size() : 0;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCambioInventario(CambioInventarioEvent evento) {
+        Map<String, Object> cuerpo = new LinkedHashMap<>();
+        cuerpo.put("tipo", evento.tipo());
+        cuerpo.put("id", evento.entidadId());
+        cuerpo.put("campos", evento.campos());
+        publicar(evento.grupoFamiliarId(), evento.entidad(), cuerpo);
+    }
+
+    // Solo se avisa a los clientes de cambios ya confirmados
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductoModificado(ProductoModificadoEvent evento) {
+        Producto producto = evento.actual() != null ? evento.actual() : evento.anterior();
+        if (evento.anterior() == null || evento.actual() == null) {
+            String tipo = evento.anterior() == null ? CambioInventarioEvent.CREADO : CambioInventarioEvent.ELIMINADO;
+            onCambioInventario(new CambioInventarioEvent(producto.getGrupoFamiliarId(), "producto", tipo,
+                    producto.getId(), null));
+            return;
+        }
+
+        Map<String, Object> campos = camposCambiados(evento.anterior(), evento.actual());
+        if (!campos.isEmpty()) {
+            onCambioInventario(new CambioInventarioEvent(producto.getGrupoFamiliarId(), "producto",
+                    CambioInventarioEvent.ACTUALIZADO, producto.getId(), campos));
+        }
+    }
+
+    // Un solo mensaje por lote importado con los ids; los clientes piden los productos que necesiten
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductosImportados(ProductosImportadosEvent evento) {
+        Map<String, Object> cuerpo = new LinkedHashMap<>();
+        cuerpo.put("tipo", CambioInventarioEvent.CREADO);
+        cuerpo.put("ids", evento.productos().stream().map(Producto::getId).toList());
+        publicar(evento.grupoFamiliarId(), "producto", cuerpo);
+    }
+
+    // El nuevo valor de cada campo que cambio; el resto del producto lo piden los clientes si lo necesitan
+    private static Map<String, Object> camposCambiados(Producto anterior, Producto actual) {
+        Map<String, Object> campos = new LinkedHashMap<>();
+        CAMPOS_PRODUCTO.forEach((nombre, campo) -> {
+            Object valor = campo.apply(actual);
+            if (!Objects.equals(campo.apply(anterior), valor)) {
+                campos.put(nombre, valor);
+            }
+        });
+        return campos;
+    }
+
+    private void publicar(String grupoFamiliarId, String entidad, Map<String, Object> cuerpo) {
+        if (grupoFamiliarId == null) {
+            return;
+        }
+        List<Suscripcion> lista = suscripciones.get(grupoFamiliarId);
+        if (lista == null || lista.isEmpty()) {
+            return;
+        }
+
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(cuerpo);
+        } catch (JsonProcessingException e) {
+            log.warn("No se pudo serializar el evento {} de {}", cuerpo.get("tipo"), entidad, e);
+            return;
+        }
+
+        Mensaje mensaje = new Mensaje(entidad, json);
+        for (Suscripcion suscripcion : lista) {
+            suscripcion.encolar(mensaje);
+        }
+    }
+
+    // Mantiene abiertas las conexiones a traves de proxies que cortan las inactivas
+    @Scheduled(fixedRateString = "${inventario.eventos.latido-ms:25000}")
+    public void enviarLatidos() {
+        Mensaje latido = new Mensaje(LATIDO, null);
+        suscripciones.values().forEach(lista -> lista.forEach(s -> s.encolar(latido)));
+    }
+
+    @Override
+    public void destroy() {
+        suscripciones.values().forEach(lista -> lista.forEach(s -> s.emitter.complete()));
+    }
+
+    private record Mensaje(String nombre, String json) {
+    }
+
+    private final class Suscripcion implements Runnable {
+
+        private final String grupoFamiliarId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Mensaje> pendientes;
+        private volatile Thread hilo;
+        private volatile boolean activa = true;
+
+        private Suscripcion(String grupoFamiliarId, SseEmitter emitter, BlockingQueue<Mensaje> pendientes) {
+            this.grupoFamiliarId = grupoFamiliarId;
+            this.emitter = emitter;
+            this.pendientes = pendientes;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (activa) {
+                    Mensaje mensaje = pendientes.take();
+                    if (LATIDO.equals(mensaje.nombre())) {
+                        emitter.send(SseEmitter.event().comment(LATIDO));
+                    } else {
+                        emitter.send(SseEmitter.event().name(mensaje.nombre()).data(mensaje.json(), MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalStateException e) {
+                // El cliente se desconecto
+                emitter.completeWithError(e);
+            } finally {
+                cerrar();
+            }
+        }
+
+        private void encolar(Mensaje mensaje) {
+            if (activa && !pendientes.offer(mensaje)) {
+                log.warn("Se cierra una conexion del grupo {} por no consumir eventos", grupoFamiliarId);
+                emitter.complete();
+                cerrar();
+            }
+        }
+
+        private void cerrar() {
+            if (!activa) {
+                return;
+            }
+            activa = false;
+            suscripciones.computeIfPresent(grupoFamiliarId, (id, lista) -> {
+                lista.remove(this);
+                return lista.isEmpty() ? null : lista;
+            });
+            Thread actual = hilo;
+            if (actual != null && actual != Thread.currentThread()) {
+                actual.interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.home_inventory.services;
+
+import com.example.home_inventory.models.ListaCompra;
+import com.example.home_inventory.models.Lugar;
+import com.example.home_inventory.models.Producto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Exporta el inventario de un grupo como NDJSON (un objeto JSON por linea) leyendo de cursores de Mongo,
+ * de modo que la memoria usada no depende del tamano del inventario.
+ */
+@Service
+@Timed(value = "inventario.servicio", histogram = true)
+public class ExportacionService {
+
+    private static final int TAMANO_LOTE_CURSOR = 500;
+    private static final byte[] SALTO_LINEA = {'\n'};
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public void exportarInventario(String grupoFamiliarId, OutputStream salida) throws IOException {
+        // Los productos se exportan desde su coleccion, no desde la copia embebida en cada lugar
+        Query lugares = porGrupo(grupoFamiliarId);
+        lugares.fields().exclude("productos");
+        escribir("lugar", mongoTemplate.stream(lugares, Lugar.class), salida);
+
+        escribir("producto", mongoTemplate.stream(porGrupo(grupoFamiliarId), Producto.class), salida);
+        escribir("listaCompra", mongoTemplate.stream(porGrupo(grupoFamiliarId), ListaCompra.class), salida);
+    }
+
+    private Query porGrupo(String grupoFamiliarId) {
+        return new Query(Criteria.where("grupoFamiliarId").is(grupoFamiliarId))
+                .cursorBatchSize(TAMANO_LOTE_CURSOR);
+    }
+
+    private void escribir(String tipo, Stream<?> documentos, OutputStream salida) throws IOException {
+        try (documentos) {
+            documentos.forEach(documento -> {
+                try {
+                    salida.write(objectMapper.writeValueAsBytes(Map.of("tipo", tipo, "datos", documento)));
+                    salida.write(SALTO_LINEA);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        salida.flush();
+    }
+}
@@ -1,21 +1,46 @@
 package com.example.home_inventory.services;
 
+import com.example.home_inventory.config.CacheConfig;
+import com.example.home_inventory.config.IndicesMongo;
 import com.example.home_inventory.models.GrupoFamiliar;
 import com.example.home_inventory.models.GrupoFamiliarDTO;
+import com.example.home_inventory.models.MembresiaGrupo;
+import com.example.home_inventory.models.ResumenGrupoDTO;
 import com.example.home_inventory.models.User;
 import com.example.home_inventory.models.UserSimpleDTO;
 import com.example.home_inventory.repository.GrupoFamiliarRepository;
+import com.example.home_inventory.repository.ProductoRepository;
 import com.example.home_inventory.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "inventario.servicio", histogram = true)
 public class GrupoFamiliarService {
 
     @Autowired
@@ -24,7 +49,56 @@ public class GrupoFamiliarService {
     @Autowired
     private UserRepository userRepository;
 
-    private GrupoFamiliarDTO convertirADTO(GrupoFamiliar grupo) {
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ReintentoOptimista reintentoOptimista;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    // Dias de anticipacion con los que un producto se considera "por vencer"; el mismo valor que usan las notificaciones
+    @Value("${inventario.notificaciones.dias-aviso-expiracion:5}")
+    private int diasAvisoExpiracion;
+
+    /**
+     * Grupo al que pertenece el usuario, o {@code null} si no pertenece a ninguno. Se guarda en cache
+     * (tambien la ausencia de grupo) y se invalida cada vez que cambian los miembros de un grupo.
+     */
+    public MembresiaGrupo getMembresia(String userId) {
+        return cacheMembresias().get(userId, () -> cargarMembresia(userId));
+    }
+
+    private MembresiaGrupo cargarMembresia(String userId) {
+        Query query = new Query(Criteria.where("miembros.id").is(userId));
+        query.fields().include("creadorId").include("miembros.id");
+        GrupoFamiliar grupo = mongoTemplate.findOne(query, GrupoFamiliar.class);
+        if (grupo == null) {
+            return null;
+        }
+        List<String> miembroIds = grupo.getMiembros().stream().map(GrupoFamiliar.MiembroInfo::getId).toList();
+        return new MembresiaGrupo(grupo.getId(), grupo.getCreadorId(), miembroIds);
+    }
+
+    private void invalidarMembresias(GrupoFamiliar grupo, String... otrosUsuarios) {
+        Cache cache = cacheMembresias();
+        if (grupo.getMiembros() != null) {
+            grupo.getMiembros().forEach(miembro -> cache.evict(miembro.getId()));
+        }
+        for (String userId : otrosUsuarios) {
+            cache.evict(userId);
+        }
+    }
+
+    private Cache cacheMembresias() {
+        return cacheManager.getCache(CacheConfig.MEMBRESIAS);
+    }
+
+    GrupoFamiliarDTO convertirADTO(GrupoFamiliar grupo) {
         // Convertir MiembroInfo a UserSimpleDTO
         List<UserSimpleDTO> miembrosConInfo = grupo.getMiembros().stream()
                 .map(miembro -> new UserSimpleDTO(
@@ -44,22 +118,15 @@ public class GrupoFamiliarService {
         );
     }
 
-    public GrupoFamiliarDTO crearGrupo(String nombre, String descripcion, String creadorUsername) {
+    public GrupoFamiliarDTO crearGrupo(String nombre, String descripcion, UserSimpleDTO creador) {
         if (grupoFamiliarRepository.findByNombre(nombre).isPresent()) {
             throw new RuntimeException("Ya existe un grupo con ese nombre");
         }
 
-        var creador = userRepository.findByUsername(creadorUsername)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-
-        String creadorId = creador.getId();
+        String creadorId = creador.id();
 
-        // Buscar por ID del creador en los miembros
-        var gruposExistentes = grupoFamiliarRepository.findAll();
-        boolean yaPertenece = gruposExistentes.stream()
-                .anyMatch(g -> g.getMiembros().stream().anyMatch(m -> m.getId().equals(creadorId)));
-
-        if (yaPertenece) {
+        // Consulta indexada sobre miembros.id
+        if (grupoFamiliarRepository.existsByMiembroId(creadorId)) {
             throw new RuntimeException("El usuario ya pertenece a un grupo familiar");
         }
 
@@ -71,17 +138,31 @@ public class GrupoFamiliarService {
 
         // Crear MiembroInfo con datos completos
         GrupoFamiliar.MiembroInfo miembroCreador = new GrupoFamiliar.MiembroInfo(
-                creador.getId(),
-                creador.getUsername(),
-                creador.getEmail()
+                creador.id(),
+                creador.username(),
+                creador.email()
         );
 
         List<GrupoFamiliar.MiembroInfo> miembros = new ArrayList<>();
         miembros.add(miembroCreador);
         grupo.setMiembros(miembros);
 
-        GrupoFamiliar grupoGuardado = grupoFamiliarRepository.save(grupo);
-        return convertirADTO(grupoGuardado);
+        try {
+            GrupoFamiliar grupoGuardado = grupoFamiliarRepository.save(grupo);
+            invalidarMembresias(grupoGuardado);
+            return convertirADTO(grupoGuardado);
+        } catch (DuplicateKeyException e) {
+            // Otra solicitud concurrente creo un grupo con el mismo nombre o agrego al usuario a un grupo
+            if (violaIndice(e, IndicesMongo.INDICE_NOMBRE_GRUPO)) {
+                throw new RuntimeException("Ya existe un grupo con ese nombre");
+            }
+            throw new RuntimeException("El usuario ya pertenece a un grupo familiar");
+        }
+    }
+
+    // El mensaje de Mongo para una clave duplicada incluye "index: <nombre>"
+    private boolean violaIndice(DuplicateKeyException e, String indice) {
+        return e.getMessage() != null && e.getMessage().contains("index: " + indice + " ");
     }
 
     public void eliminarGrupo(String grupoId, String usuarioId) {
@@ -94,9 +175,16 @@ public class GrupoFamiliarService {
         }
 
         grupoFamiliarRepository.deleteById(grupoId);
+        invalidarMembresias(grupo);
     }
 
     public GrupoFamiliarDTO agregarMiembro(String grupoId, String username, String solicitanteId) {
+        // Si otra solicitud modifico el grupo entre la lectura y el guardado se vuelve a leer y validar
+        return reintentoOptimista.ejecutar("grupo.agregarMiembro",
+                () -> agregarMiembroUnaVez(grupoId, username, solicitanteId));
+    }
+
+    private GrupoFamiliarDTO agregarMiembroUnaVez(String grupoId, String username, String solicitanteId) {
         GrupoFamiliar grupo = grupoFamiliarRepository.findById(grupoId)
                 .orElseThrow(() -> new RuntimeException("Grupo no encontrado"));
 
@@ -121,13 +209,8 @@ public class GrupoFamiliarService {
             throw new RuntimeException("El usuario ya es miembro de este grupo");
         }
 
-        // Verificar que el usuario no pertenece a otro grupo
-        var gruposExistentes = grupoFamiliarRepository.findAll();
-        boolean perteneceAOtroGrupo = gruposExistentes.stream()
-                .anyMatch(g -> !g.getId().equals(grupoId) &&
-                        g.getMiembros().stream().anyMatch(m -> m.getId().equals(usuarioId)));
-
-        if (perteneceAOtroGrupo) {
+        // Verificar que el usuario no pertenece a otro grupo (ya se descarto este grupo)
+        if (grupoFamiliarRepository.existsByMiembroId(usuarioId)) {
             throw new RuntimeException("El usuario ya pertenece a otro grupo familiar");
         }
 
@@ -138,13 +221,22 @@ public class GrupoFamiliarService {
                 usuario.getEmail()
         );
 
-        grupo.getMiembros().add(nuevoMiembro);
-        GrupoFamiliar grupoActualizado = grupoFamiliarRepository.save(grupo);
-
-        return convertirADTO(grupoActualizado);
+        try {
+            GrupoFamiliar grupoActualizado = actualizarSiNoCambio(grupo,
+                    new Update().push("miembros", nuevoMiembro));
+            invalidarMembresias(grupoActualizado);
+            return convertirADTO(grupoActualizado);
+        } catch (DuplicateKeyException e) {
+            throw new RuntimeException("El usuario ya pertenece a otro grupo familiar");
+        }
     }
 
     public GrupoFamiliarDTO eliminarMiembro(String grupoId, String username, String solicitanteId) {
+        return reintentoOptimista.ejecutar("grupo.eliminarMiembro",
+                () -> eliminarMiembroUnaVez(grupoId, username, solicitanteId));
+    }
+
+    private GrupoFamiliarDTO eliminarMiembroUnaVez(String grupoId, String username, String solicitanteId) {
         GrupoFamiliar grupo = grupoFamiliarRepository.findById(grupoId)
                 .orElseThrow(() -> new RuntimeException("Grupo no encontrado"));
 
@@ -175,20 +267,41 @@ public class GrupoFamiliarService {
         }
 
         // Eliminar el miembro por ID
-        grupo.getMiembros().removeIf(m -> m.getId().equals(usuarioId));
-        GrupoFamiliar grupoActualizado = grupoFamiliarRepository.save(grupo);
+        Object idMiembro = mongoTemplate.getConverter().convertId(usuarioId, ObjectId.class);
+        GrupoFamiliar grupoActualizado = actualizarSiNoCambio(grupo,
+                new Update().pull("miembros", new Document("_id", idMiembro)));
+        // El miembro eliminado ya no esta en la lista del grupo
+        invalidarMembresias(grupoActualizado, usuarioId);
 
         return convertirADTO(grupoActualizado);
     }
 
+    /**
+     * Aplica el cambio sobre los miembros con una actualizacion atomica, solo si el grupo sigue en la version
+     * leida: las validaciones se hicieron sobre esa lectura. No se guarda el documento completo, asi que las
+     * referencias a lugares y listas agregadas mientras tanto no se pisan. Si el grupo cambio, ReintentoOptimista
+     * vuelve a leerlo y validar.
+     */
+    private GrupoFamiliar actualizarSiNoCambio(GrupoFamiliar grupo, Update update) {
+        Query sinCambios = new Query(Criteria.where("id").is(grupo.getId()).and("version").is(grupo.getVersion()));
+        GrupoFamiliar actualizado = mongoTemplate.findAndModify(sinCambios, update.inc("version", 1),
+                FindAndModifyOptions.options().returnNew(true), GrupoFamiliar.class);
+        if (actualizado == null) {
+            throw new OptimisticLockingFailureException("El grupo " + grupo.getId() + " cambio durante la operacion");
+        }
+        return actualizado;
+    }
+
     public String getGrupoFamiliarIdByUser(String userId) {
-        return grupoFamiliarRepository.findByMiembroId(userId)
-                .map(GrupoFamiliar::getId)
-                .orElseThrow(() -> new RuntimeException("El usuario no pertenece a ningún grupo familiar"));
+        MembresiaGrupo membresia = getMembresia(userId);
+        if (membresia == null) {
+            throw new RuntimeException("El usuario no pertenece a ningún grupo familiar");
+        }
+        return membresia.grupoFamiliarId();
     }
 
     public Map<String, String> getGrupoFamiliarNombreByUser(String userId) {
-        return grupoFamiliarRepository.findByMiembroId(userId)
+        return grupoFamiliarRepository.findDatosBasicosByMiembroId(userId)
                 .map(grupo -> Map.of(
                         "nombre", grupo.getNombre() != null ? grupo.getNombre() : "",
                         "descripcion", grupo.getDescripcion() != null ? grupo.getDescripcion() : "",
@@ -198,29 +311,21 @@ public class GrupoFamiliarService {
     }
 
     public int getCantidadProductosByUser(String userId) {
-        return grupoFamiliarRepository.findByMiembroId(userId)
-                .map(grupo -> {
-                    if (grupo.getLugares() == null) return 0;
-
-                    return grupo.getLugares().stream()
-                            .filter(lugar -> lugar.getProductos() != null)
-                            .mapToInt(lugar -> lugar.getProductos().size())
-                            .sum();
-                })
-                .orElse(0);
+        MembresiaGrupo membresia = getMembresia(userId);
+        if (membresia == null) {
+            return 0;
+        }
+        // Conteo sobre el indice de grupoFamiliarId de Producto, sin leer los lugares
+        return (int) productoRepository.countByGrupoFamiliarId(membresia.grupoFamiliarId());
     }
 
     public int getCantidadMiembrosByUser(String userId) {
-        return grupoFamiliarRepository.findByMiembroId(userId)
-                .map(grupo -> {
-                    if (grupo.getMiembros() == null) return 0;
-                    return grupo.getMiembros().size();
-                })
-                .orElse(0);
+        MembresiaGrupo membresia = getMembresia(userId);
+        return membresia != null ? membresia.miembroIds().size() : 0;
     }
 
     public List<Map<String, String>> getUsernamesMiembrosByUser(String userId) {
-        return grupoFamiliarRepository.findByMiembroId(userId)
+        return grupoFamiliarRepository.findMiembrosByMiembroId(userId)
                 .map(grupo -> {
                     if (grupo.getMiembros() == null) return new ArrayList<Map<String, String>>();
 
@@ -235,8 +340,104 @@ public class GrupoFamiliarService {
     }
 
     public boolean isCreador(String userId) {
-        return grupoFamiliarRepository.findByMiembroId(userId)
-                .map(grupo -> grupo.getCreadorId().equals(userId))
-                .orElse(false);
+        MembresiaGrupo membresia = getMembresia(userId);
+        return membresia != null && userId.equals(membresia.creadorId());
+    }
+
+    public ResumenGrupoDTO getResumenByUser(String userId) {
+        Date limiteExpiracion = Date.from(LocalDate.now().plusDays(diasAvisoExpiracion)
+                .atStartOfDay(ZoneId.systemDefault()).toInstant());
+
+        // Una sola agregacion: el grupo del usuario mas la cantidad de lugares y las estadisticas de sus productos
+        TypedAggregation<GrupoFamiliar> aggregation = Aggregation.newAggregation(
+                GrupoFamiliar.class,
+                Aggregation.match(Criteria.where("miembros.id").is(userId)),
+                Aggregation.limit(1),
+                cantidadLugares(),
+                estadisticasProductos(limiteExpiracion),
+                context -> new Document("$project", new Document()
+                        .append("nombre", 1)
+                        .append("descripcion", 1)
+                        .append("fechaCreacion", 1)
+                        .append("creadorId", 1)
+                        .append("miembros", 1)
+                        .append("cantidadListas", new Document("$size",
+                                new Document("$ifNull", List.of("$listaCompraIds", List.of()))))
+                        .append("lugares", new Document("$arrayElemAt", List.of("$lugares", 0)))
+                        .append("productos", new Document("$arrayElemAt", List.of("$productos", 0))))
+        );
+
+        Document resultado = mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+        if (resultado == null) {
+            throw new RuntimeException("El usuario no pertenece a ningún grupo familiar");
+        }
+
+        List<UserSimpleDTO> miembros = new ArrayList<>();
+        for (Document miembro : resultado.getList("miembros", Document.class, List.of())) {
+            miembros.add(new UserSimpleDTO(
+                    String.valueOf(miembro.get("_id")),
+                    miembro.getString("username"),
+                    miembro.getString("email")
+            ));
+        }
+
+        Document lugares = resultado.get("lugares", new Document());
+        Document productos = resultado.get("productos", new Document());
+        Date fechaCreacion = resultado.getDate("fechaCreacion");
+
+        return new ResumenGrupoDTO(
+                resultado.get("_id").toString(),
+                resultado.getString("nombre"),
+                resultado.getString("descripcion"),
+                fechaCreacion != null ? LocalDateTime.ofInstant(fechaCreacion.toInstant(), ZoneId.systemDefault()) : null,
+                miembros,
+                miembros.size(),
+                userId.equals(resultado.getString("creadorId")),
+                lugares.getInteger("cantidadLugares", 0),
+                resultado.getInteger("cantidadListas", 0),
+                productos.getInteger("cantidadProductos", 0),
+                productos.getInteger("productosBajoStock", 0),
+                productos.getInteger("productosPorVencer", 0)
+        );
+    }
+
+    // Los lugares solo aportan su cantidad; los productos se cuentan sobre la coleccion Producto, la misma
+    // que usa getCantidadProductosByUser, y no sobre la copia embebida que mantiene el outbox
+    private AggregationOperation cantidadLugares() {
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("$expr",
+                        new Document("$eq", List.of("$grupoFamiliarId", "$$grupoId")))),
+                new Document("$count", "cantidadLugares")
+        );
+
+        return context -> new Document("$lookup", new Document()
+                .append("from", "Lugar")
+                .append("let", new Document("grupoId", new Document("$toString", "$_id")))
+                .append("pipeline", pipeline)
+                .append("as", "lugares"));
+    }
+
+    private AggregationOperation estadisticasProductos(Date limiteExpiracion) {
+        Document bajoStock = new Document("$cond", List.of(
+                new Document("$lt", List.of("$cantidad", "$cantidadMinima")), 1, 0));
+        Document porVencer = new Document("$cond", List.of(
+                new Document("$and", List.of(
+                        new Document("$eq", List.of(new Document("$type", "$expiracion"), "date")),
+                        new Document("$lte", List.of("$expiracion", limiteExpiracion)))), 1, 0));
+
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("$expr",
+                        new Document("$eq", List.of("$grupoFamiliarId", "$$grupoId")))),
+                new Document("$group", new Document("_id", null)
+                        .append("cantidadProductos", new Document("$sum", 1))
+                        .append("productosBajoStock", new Document("$sum", bajoStock))
+                        .append("productosPorVencer", new Document("$sum", porVencer)))
+        );
+
+        return context -> new Document("$lookup", new Document()
+                .append("from", "Producto")
+                .append("let", new Document("grupoId", new Document("$toString", "$_id")))
+                .append("pipeline", pipeline)
+                .append("as", "productos"));
     }
 }
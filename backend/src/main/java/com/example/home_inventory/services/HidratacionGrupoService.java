@@ -0,0 +1,99 @@
+package com.example.home_inventory.services;
+
+import com.example.home_inventory.models.DetalleGrupoDTO;
+import com.example.home_inventory.models.GrupoFamiliar;
+import com.example.home_inventory.models.GrupoFamiliarHidratado;
+import com.example.home_inventory.models.ListaCompra;
+import com.example.home_inventory.models.Lugar;
+import com.example.home_inventory.models.Producto;
+import com.example.home_inventory.repository.GrupoFamiliarRepository;
+import com.example.home_inventory.repository.ListaCompraRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Carga bajo demanda lo que el grupo solo guarda como referencias: un cliente pide en una sola llamada las
+ * secciones que necesita en lugar de una llamada por lugar o lista.
+ */
+@Service
+@Timed(value = "inventario.servicio", histogram = true)
+public class HidratacionGrupoService {
+
+    public static final String LUGARES = "lugares";
+    public static final String PRODUCTOS = "productos";
+    public static final String LISTAS = "listas";
+    public static final Set<String> SECCIONES = Set.of(LUGARES, PRODUCTOS, LISTAS);
+
+    @Autowired
+    private GrupoFamiliarRepository grupoFamiliarRepository;
+
+    @Autowired
+    private ListaCompraRepository listaCompraRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private GrupoFamiliarService grupoFamiliarService;
+
+    public DetalleGrupoDTO getDetalleByUser(String userId, Set<String> incluir) {
+        for (String seccion : incluir) {
+            if (!SECCIONES.contains(seccion)) {
+                throw new IllegalArgumentException("Sección no soportada: " + seccion);
+            }
+        }
+        GrupoFamiliar grupo = grupoFamiliarRepository.findByMiembroId(userId)
+                .orElseThrow(() -> new RuntimeException("El usuario no pertenece a ningún grupo familiar"));
+
+        GrupoFamiliarHidratado hidratado = hidratar(grupo);
+        return new DetalleGrupoDTO(
+                grupoFamiliarService.convertirADTO(grupo),
+                incluir.contains(LUGARES) ? hidratado.getLugares() : null,
+                incluir.contains(PRODUCTOS) ? hidratado.getProductos() : null,
+                incluir.contains(LISTAS) ? hidratado.getListasCompra() : null
+        );
+    }
+
+    public GrupoFamiliarHidratado hidratar(GrupoFamiliar grupo) {
+        return new GrupoFamiliarHidratado(
+                grupo,
+                () -> cargarLugares(grupo),
+                () -> cargarProductos(grupo),
+                () -> cargarListas(grupo)
+        );
+    }
+
+    private List<Lugar> cargarLugares(GrupoFamiliar grupo) {
+        if (grupo.getLugarIds() == null || grupo.getLugarIds().isEmpty()) {
+            return new ArrayList<>();
+        }
+        // Sin la copia embebida de los productos: se piden aparte y salen de su propia coleccion
+        Query query = new Query(Criteria.where("id").in(grupo.getLugarIds()));
+        query.fields().exclude("productos");
+        List<Lugar> lugares = mongoTemplate.find(query, Lugar.class);
+        // null y no una lista vacia, para no confundirlo con un lugar sin productos
+        lugares.forEach(lugar -> lugar.setProductos(null));
+        return lugares;
+    }
+
+    private List<Producto> cargarProductos(GrupoFamiliar grupo) {
+        return mongoTemplate.find(new Query(Criteria.where("grupoFamiliarId").is(grupo.getId())), Producto.class);
+    }
+
+    private List<ListaCompra> cargarListas(GrupoFamiliar grupo) {
+        if (grupo.getListaCompraIds() == null || grupo.getListaCompraIds().isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<ListaCompra> listas = new ArrayList<>();
+        listaCompraRepository.findAllById(grupo.getListaCompraIds()).forEach(listas::add);
+        return listas;
+    }
+}
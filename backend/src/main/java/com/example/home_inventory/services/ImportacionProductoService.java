@@ -0,0 +1,247 @@
+package com.example.home_inventory.services;
+
+import com.example.home_inventory.events.ProductosImportadosEvent;
+import com.example.home_inventory.models.Lugar;
+import com.example.home_inventory.models.Producto;
+import com.example.home_inventory.models.ProductoEntrada;
+import com.example.home_inventory.models.ResultadoImportacion;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.annotation.Timed;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Importacion masiva de productos desde CSV (con encabezado) o NDJSON. Valida cada fila con las mismas reglas
+ * que la creacion individual, inserta por lotes sin orden y agrega los productos de cada lugar con una sola
+ * actualizacion por lote. Los eventos de outbox del lote se registran antes de escribir: si la importacion se
+ * interrumpe entre la insercion y la actualizacion de los lugares, el relay completa la proyeccion.
+ */
+@Service
+@Timed(value = "inventario.servicio", histogram = true)
+public class ImportacionProductoService {
+
+    public static final String FORMATO_CSV = "csv";
+    public static final String FORMATO_NDJSON = "ndjson";
+
+    public static final int TAMANO_LOTE_MAXIMO = 1000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private RelayOutboxService relayOutboxService;
+
+    @Value("${inventario.importacion.tamano-lote:500}")
+    private int tamanoLotePorDefecto;
+
+    public ResultadoImportacion importar(String grupoFamiliarId, String lugarIdPorDefecto, String formato,
+                                         Integer tamanoLote, InputStream entrada) throws IOException {
+        int lote = tamanoLote != null ? tamanoLote : tamanoLotePorDefecto;
+        if (lote < 1 || lote > TAMANO_LOTE_MAXIMO) {
+            throw new IllegalArgumentException("El tamaño de lote debe estar entre 1 y " + TAMANO_LOTE_MAXIMO);
+        }
+
+        Set<String> lugaresDelGrupo = obtenerLugaresDelGrupo(grupoFamiliarId);
+        List<ResultadoImportacion.ErrorFila> errores = new ArrayList<>();
+        List<FilaValida> pendientes = new ArrayList<>();
+        int filasProcesadas = 0;
+        int insertados = 0;
+
+        BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        List<String> encabezado = null;
+        String linea;
+        int numeroLinea = 0;
+        while ((linea = lector.readLine()) != null) {
+            numeroLinea++;
+            if (linea.isBlank()) {
+                continue;
+            }
+            if (FORMATO_CSV.equals(formato) && encabezado == null) {
+                encabezado = parsearLineaCsv(linea).stream().map(String::trim).toList();
+                continue;
+            }
+
+            filasProcesadas++;
+            try {
+                Map<String, String> fila = FORMATO_CSV.equals(formato)
+                        ? filaCsv(encabezado, parsearLineaCsv(linea))
+                        : filaNdjson(linea);
+
+                String lugarId = fila.get("lugarId") != null && !fila.get("lugarId").isBlank()
+                        ? fila.get("lugarId")
+                        : lugarIdPorDefecto;
+                if (lugarId == null || !lugaresDelGrupo.contains(lugarId)) {
+                    throw new IllegalArgumentException("El lugar no existe o no pertenece al grupo familiar");
+                }
+
+                ProductoEntrada producto = ProductoValidador.validar(fila);
+                pendientes.add(new FilaValida(numeroLinea, lugarId, producto));
+            } catch (IllegalArgumentException e) {
+                errores.add(new ResultadoImportacion.ErrorFila(numeroLinea, e.getMessage()));
+            }
+
+            if (pendientes.size() >= lote) {
+                insertados += escribirLote(grupoFamiliarId, pendientes, errores);
+                pendientes.clear();
+            }
+        }
+        if (!pendientes.isEmpty()) {
+            insertados += escribirLote(grupoFamiliarId, pendientes, errores);
+        }
+
+        return new ResultadoImportacion(filasProcesadas, insertados, errores);
+    }
+
+    private Set<String> obtenerLugaresDelGrupo(String grupoFamiliarId) {
+        Query query = new Query(Criteria.where("grupoFamiliarId").is(grupoFamiliarId));
+        query.fields().include("id");
+        Set<String> ids = new HashSet<>();
+        mongoTemplate.find(query, Lugar.class).forEach(lugar -> ids.add(lugar.getId()));
+        return ids;
+    }
+
+    private int escribirLote(String grupoFamiliarId, List<FilaValida> filas, List<ResultadoImportacion.ErrorFila> errores) {
+        List<Producto> productos = new ArrayList<>();
+        for (FilaValida fila : filas) {
+            Producto producto = new Producto();
+            // El id se asigna antes de insertar para poder agregarlo al lugar sin releer los documentos
+            producto.setId(new ObjectId().toHexString());
+            producto.setNombre(fila.producto().nombre());
+            producto.setDescripcion(fila.producto().descripcion());
+            producto.setCantidad(fila.producto().cantidad());
+            producto.setCantidadMinima(fila.producto().cantidadMinima());
+            producto.setExpiracion(fila.producto().expiracion());
+            producto.setLugarId(fila.lugarId());
+            producto.setGrupoFamiliarId(grupoFamiliarId);
+            productos.add(producto);
+        }
+
+        List<String> eventosOutbox = relayOutboxService.reservarLote(productos);
+
+        Set<Integer> fallidos = new HashSet<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Producto.class)
+                    .insert(productos)
+                    .execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                fallidos.add(error.getIndex());
+                errores.add(new ResultadoImportacion.ErrorFila(filas.get(error.getIndex()).linea(), error.getMessage()));
+            }
+        }
+
+        // Una sola actualizacion por lugar con todos sus productos del lote
+        Map<String, List<Producto>> porLugar = new LinkedHashMap<>();
+        List<Producto> insertados = new ArrayList<>();
+        for (int i = 0; i < productos.size(); i++) {
+            if (!fallidos.contains(i)) {
+                porLugar.computeIfAbsent(productos.get(i).getLugarId(), k -> new ArrayList<>()).add(productos.get(i));
+                insertados.add(productos.get(i));
+            }
+        }
+        if (!porLugar.isEmpty()) {
+            BulkOperations lugares = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Lugar.class);
+            porLugar.forEach((lugarId, productosLugar) -> lugares.updateOne(
+                    new Query(Criteria.where("id").is(lugarId)),
+                    new Update().push("productos").each(productosLugar.toArray())));
+            lugares.execute();
+        }
+        // Los lugares ya reflejan el lote; los eventos de los productos que no se insertaron no tienen efecto
+        relayOutboxService.descartarLote(eventosOutbox);
+
+        if (!insertados.isEmpty()) {
+            eventPublisher.publishEvent(new ProductosImportadosEvent(grupoFamiliarId, insertados));
+        }
+
+        return productos.size() - fallidos.size();
+    }
+
+    private Map<String, String> filaCsv(List<String> encabezado, List<String> valores) {
+        if (valores.size() > encabezado.size()) {
+            throw new IllegalArgumentException("La fila tiene más columnas que el encabezado");
+        }
+        Map<String, String> fila = new HashMap<>();
+        for (int i = 0; i < valores.size(); i++) {
+            String valor = valores.get(i).trim();
+            fila.put(encabezado.get(i), valor.isEmpty() ? null : valor);
+        }
+        return fila;
+    }
+
+    private Map<String, String> filaNdjson(String linea) {
+        Map<String, Object> valores;
+        try {
+            valores = objectMapper.readValue(linea, new TypeReference<Map<String, Object>>() {});
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("JSON inválido");
+        }
+        Map<String, String> fila = new HashMap<>();
+        valores.forEach((campo, valor) -> fila.put(campo, valor != null ? valor.toString() : null));
+        return fila;
+    }
+
+    private List<String> parsearLineaCsv(String linea) {
+        List<String> valores = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreComillas = false;
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                valores.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        if (entreComillas) {
+            throw new IllegalArgumentException("Comillas sin cerrar en la fila");
+        }
+        valores.add(actual.toString());
+        return valores;
+    }
+
+    private record FilaValida(int linea, String lugarId, ProductoEntrada producto) {
+    }
+}
@@ -1,9 +1,19 @@
 package com.example.home_inventory.services;
 
+import com.example.home_inventory.events.CambioInventarioEvent;
+import com.example.home_inventory.models.GrupoFamiliar;
 import com.example.home_inventory.models.ListaCompra;
-import com.example.home_inventory.repository.GrupoFamiliarRepository;
 import com.example.home_inventory.repository.ListaCompraRepository;
+import io.micrometer.core.annotation.Timed;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -12,13 +22,17 @@ import java.util.List;
 import java.util.Optional;
 
 @Service
+@Timed(value = "inventario.servicio", histogram = true)
 public class ListaCompraService {
 
     @Autowired
     private ListaCompraRepository listaCompraRepository;
 
     @Autowired
-    private GrupoFamiliarRepository grupoFamiliarRepository;
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @Autowired
     private GrupoFamiliarService grupoFamiliarService;
@@ -28,23 +42,23 @@ public class ListaCompraService {
         String grupoFamiliarId = grupoFamiliarService.getGrupoFamiliarIdByUser(userId);
 
         listaCompra.setGrupoFamiliarId(grupoFamiliarId);
+        // La version la controla el servidor; una enviada por el cliente haria que save intentara actualizar
+        listaCompra.setVersion(null);
         listaCompra.setFechaCreacion(LocalDateTime.now());
         if (listaCompra.getProductosLista() == null) {
             listaCompra.setProductosLista(new ArrayList<>());
         }
+        listaCompra.getProductosLista().forEach(producto -> producto.setId(new ObjectId().toHexString()));
         ListaCompra saved = listaCompraRepository.save(listaCompra);
 
-        // Agregar la lista embebida al grupo familiar
+        // Registrar la referencia a la lista en el grupo familiar
         if (saved.getId() != null && grupoFamiliarId != null) {
-            grupoFamiliarRepository.findById(grupoFamiliarId).ifPresent(grupo -> {
-                if (grupo.getListasCompra() == null) {
-                    grupo.setListasCompra(new ArrayList<>());
-                }
-                grupo.getListasCompra().add(saved);
-                grupoFamiliarRepository.save(grupo);
-            });
+            mongoTemplate.updateFirst(new Query(Criteria.where("id").is(grupoFamiliarId)),
+                    new Update().addToSet("listaCompraIds", saved.getId()).inc("version", 1), GrupoFamiliar.class);
         }
 
+        eventPublisher.publishEvent(new CambioInventarioEvent(grupoFamiliarId, "lista",
+                CambioInventarioEvent.CREADO, saved.getId(), null));
         return saved;
     }
 
@@ -65,82 +79,64 @@ public class ListaCompraService {
         // Eliminar de la colección principal
         listaCompraRepository.deleteById(id);
 
-        // Eliminar de la lista embebida en el grupo familiar
+        // Quitar la referencia a la lista del grupo familiar
         if (grupoFamiliarId != null) {
-            grupoFamiliarRepository.findById(grupoFamiliarId).ifPresent(grupo -> {
-                if (grupo.getListasCompra() != null) {
-                    grupo.getListasCompra().removeIf(l -> l.getId().equals(id));
-                    grupoFamiliarRepository.save(grupo);
-                }
-            });
+            mongoTemplate.updateFirst(new Query(Criteria.where("id").is(grupoFamiliarId)),
+                    new Update().pull("listaCompraIds", id).inc("version", 1), GrupoFamiliar.class);
         }
+
+        eventPublisher.publishEvent(new CambioInventarioEvent(grupoFamiliarId, "lista",
+                CambioInventarioEvent.ELIMINADO, id, null));
     }
 
     public ListaCompra marcarProductoComprado(String listaId, String nombreProducto, boolean comprado) {
-        Optional<ListaCompra> listaOpt = listaCompraRepository.findById(listaId);
-        if (listaOpt.isPresent()) {
-            ListaCompra lista = listaOpt.get();
-            lista.getProductosLista().stream()
-                    .filter(p -> p.getNombre().equals(nombreProducto))
-                    .findFirst()
-                    .ifPresent(p -> p.setComprado(comprado));
-            ListaCompra saved = listaCompraRepository.save(lista);
-
-            // Actualizar en el grupo familiar
-            actualizarListaEnGrupoFamiliar(listaId, saved);
-
-            return saved;
-        }
-        throw new RuntimeException("Lista no encontrada");
+        return actualizarElemento(listaId, "productosLista.nombre", nombreProducto,
+                new Update().set("productosLista.$.comprado", comprado));
+    }
+
+    public ListaCompra marcarElementoComprado(String listaId, String elementoId, boolean comprado) {
+        return actualizarElemento(listaId, "productosLista.id", elementoId,
+                new Update().set("productosLista.$.comprado", comprado));
     }
 
     public ListaCompra agregarProductoLista(String listaId, ListaCompra.ProductoLista producto) {
-        Optional<ListaCompra> listaOpt = listaCompraRepository.findById(listaId);
-        if (listaOpt.isPresent()) {
-            ListaCompra lista = listaOpt.get();
-            if (lista.getProductosLista() == null) {
-                lista.setProductosLista(new ArrayList<>());
-            }
-            lista.getProductosLista().add(producto);
-            ListaCompra saved = listaCompraRepository.save(lista);
-
-            // Actualizar en el grupo familiar
-            actualizarListaEnGrupoFamiliar(listaId, saved);
-
-            return saved;
-        }
-        throw new RuntimeException("Lista no encontrada");
+        // El id se asigna aqui para que el elemento pueda marcarse o eliminarse despues sin depender del nombre
+        producto.setId(new ObjectId().toHexString());
+        return actualizarElemento(listaId, null, null, new Update().push("productosLista", producto));
     }
 
     public ListaCompra eliminarProductoLista(String listaId, String nombreProducto) {
-        Optional<ListaCompra> listaOpt = listaCompraRepository.findById(listaId);
-        if (listaOpt.isPresent()) {
-            ListaCompra lista = listaOpt.get();
-            lista.getProductosLista().removeIf(p -> p.getNombre().equals(nombreProducto));
-            ListaCompra saved = listaCompraRepository.save(lista);
+        return actualizarElemento(listaId, null, null,
+                new Update().pull("productosLista", new Document("nombre", nombreProducto)));
+    }
 
-            // Actualizar en el grupo familiar
-            actualizarListaEnGrupoFamiliar(listaId, saved);
+    public ListaCompra eliminarElementoLista(String listaId, String elementoId) {
+        Object idElemento = mongoTemplate.getConverter().convertId(elementoId, ObjectId.class);
+        return actualizarElemento(listaId, null, null,
+                new Update().pull("productosLista", new Document("_id", idElemento)));
+    }
 
-            return saved;
+    /**
+     * Aplica el cambio sobre la lista en una sola operacion atomica y devuelve la lista resultante,
+     * sin leerla antes ni reescribirla completa.
+     */
+    private ListaCompra actualizarElemento(String listaId, String campoElemento, Object valor, Update update) {
+        Criteria criteria = Criteria.where("id").is(listaId);
+        if (campoElemento != null) {
+            // El operador posicional $ apunta al elemento que cumple esta condicion
+            criteria = criteria.and(campoElemento).is(valor);
         }
-        throw new RuntimeException("Lista no encontrada");
+        ListaCompra lista = mongoTemplate.findAndModify(new Query(criteria), update,
+                FindAndModifyOptions.options().returnNew(true), ListaCompra.class);
+        if (lista == null) {
+            throw new RuntimeException(campoElemento == null ? "Lista no encontrada" : "Lista o producto no encontrado");
+        }
+        return notificarCambio(lista);
     }
 
-    private void actualizarListaEnGrupoFamiliar(String listaId, ListaCompra listaActualizada) {
-        String grupoFamiliarId = listaActualizada.getGrupoFamiliarId();
-        if (grupoFamiliarId != null) {
-            grupoFamiliarRepository.findById(grupoFamiliarId).ifPresent(grupo -> {
-                if (grupo.getListasCompra() != null) {
-                    for (int i = 0; i < grupo.getListasCompra().size(); i++) {
-                        if (grupo.getListasCompra().get(i).getId().equals(listaId)) {
-                            grupo.getListasCompra().set(i, listaActualizada);
-                            grupoFamiliarRepository.save(grupo);
-                            break;
-                        }
-                    }
-                }
-            });
-        }
+    private ListaCompra notificarCambio(ListaCompra lista) {
+        eventPublisher.publishEvent(new CambioInventarioEvent(lista.getGrupoFamiliarId(), "lista",
+                CambioInventarioEvent.ACTUALIZADO, lista.getId(), null));
+        return lista;
     }
 }
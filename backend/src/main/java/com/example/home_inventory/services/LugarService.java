@@ -4,23 +4,35 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.example.home_inventory.events.CambioInventarioEvent;
+import com.example.home_inventory.events.ProductoModificadoEvent;
 import com.example.home_inventory.models.GrupoFamiliar;
 import com.example.home_inventory.models.Producto;
-import com.example.home_inventory.repository.GrupoFamiliarRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.home_inventory.models.Lugar;
 import com.example.home_inventory.repository.LugarRepository;
 
 @Service
+@Timed(value = "inventario.servicio", histogram = true)
 public class LugarService {
 
     @Autowired
     private LugarRepository lugarRepository;
 
     @Autowired
-    private GrupoFamiliarRepository grupoFamiliarRepository;
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
 
     public Lugar crearLugar(String nombre, String descripcion, String grupoFamiliarId, String userId) {
@@ -33,39 +45,18 @@ public class LugarService {
         lugar.setProductos(new ArrayList<>());
         Lugar saved = lugarRepository.save(lugar);
 
-        // Agregar el lugar embebido al grupo familiar
+        // Registrar la referencia al lugar en el grupo familiar
         if (saved.getId() != null && grupoFamiliarId != null) {
-            grupoFamiliarRepository.findById(grupoFamiliarId).ifPresent(grupo -> {
-                if (grupo.getLugares() == null) {
-                    grupo.setLugares(new ArrayList<>());
-                }
-                grupo.getLugares().add(saved);
-                grupoFamiliarRepository.save(grupo);
-            });
+            mongoTemplate.updateFirst(new Query(Criteria.where("id").is(grupoFamiliarId)),
+                    new Update().addToSet("lugarIds", saved.getId()).inc("version", 1), GrupoFamiliar.class);
         }
 
+        eventPublisher.publishEvent(new CambioInventarioEvent(grupoFamiliarId, "lugar",
+                CambioInventarioEvent.CREADO, saved.getId(), null));
         return saved;
     }
 
-    private void actualizarLugarEnGrupos(String lugarId, Lugar lugarActualizado) {
-        List<GrupoFamiliar> grupos = grupoFamiliarRepository.findAll();
-        for (GrupoFamiliar grupo : grupos) {
-            if (grupo.getLugares() != null) {
-                boolean actualizado = false;
-                for (int i = 0; i < grupo.getLugares().size(); i++) {
-                    if (grupo.getLugares().get(i).getId().equals(lugarId)) {
-                        grupo.getLugares().set(i, lugarActualizado);
-                        actualizado = true;
-                        break;
-                    }
-                }
-                if (actualizado) {
-                    grupoFamiliarRepository.save(grupo);
-                }
-            }
-        }
-    }
-
+    @Transactional
     public void eliminarLugar(String lugarId) {
         // Primero obtener el lugar para saber su grupoFamiliarId
         Lugar lugar = lugarRepository.findById(lugarId)
@@ -76,15 +67,21 @@ public class LugarService {
         // Eliminar el lugar de la colección principal
         lugarRepository.deleteById(lugarId);
 
-        // Eliminar el lugar de la lista embebida en el grupo familiar
+        // Los productos del lugar se eliminan con el; si quedaran en Producto se seguirian contando en el grupo
+        List<Producto> productos = mongoTemplate.findAllAndRemove(
+                new Query(Criteria.where("lugarId").is(lugarId)), Producto.class);
+        for (Producto producto : productos) {
+            eventPublisher.publishEvent(new ProductoModificadoEvent(producto, null));
+        }
+
+        // Quitar la referencia al lugar del grupo familiar
         if (grupoFamiliarId != null) {
-            grupoFamiliarRepository.findById(grupoFamiliarId).ifPresent(grupo -> {
-                if (grupo.getLugares() != null) {
-                    grupo.getLugares().removeIf(l -> l.getId().equals(lugarId));
-                    grupoFamiliarRepository.save(grupo);
-                }
-            });
+            mongoTemplate.updateFirst(new Query(Criteria.where("id").is(grupoFamiliarId)),
+                    new Update().pull("lugarIds", lugarId).inc("version", 1), GrupoFamiliar.class);
         }
+
+        eventPublisher.publishEvent(new CambioInventarioEvent(grupoFamiliarId, "lugar",
+                CambioInventarioEvent.ELIMINADO, lugarId, null));
     }
 
     public List<Lugar> obtenerLugaresPorGrupo(String grupoFamiliarId) {
@@ -96,9 +93,14 @@ public class LugarService {
                 .orElseThrow(() -> new RuntimeException("Lugar no encontrado"));
     }
 
-    public List<Producto> obtenerProductos(String lugarId) {
-        Lugar lugar = lugarRepository.findById(lugarId)
-                .orElseThrow(() -> new RuntimeException("Lugar no encontrado"));
-        return lugar.getProductos();
+    public String obtenerGrupoFamiliarId(String lugarId) {
+        // Solo el grupo: la copia embebida de productos del lugar no se lee
+        Query query = new Query(Criteria.where("id").is(lugarId));
+        query.fields().include("grupoFamiliarId");
+        Lugar lugar = mongoTemplate.findOne(query, Lugar.class);
+        if (lugar == null) {
+            throw new RuntimeException("Lugar no encontrado");
+        }
+        return lugar.getGrupoFamiliarId();
     }
 }
@@ -0,0 +1,106 @@
+package com.example.home_inventory.services;
+
+import io.micrometer.core.annotation.Timed;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Convierte en segundo plano los grupos familiares guardados con lugares y listas embebidos
+ * al formato por referencias (lugarIds / listaCompraIds). Trabaja por lotes y es idempotente,
+ * por lo que puede correr mientras la aplicacion atiende solicitudes.
+ */
+@Service
+@Timed(value = "inventario.servicio", histogram = true)
+public class MigracionGrupoFamiliarService {
+
+    private static final Logger log = LoggerFactory.getLogger(MigracionGrupoFamiliarService.class);
+
+    private static final String COLECCION_GRUPOS = "GrupoFamiliar";
+    private static final String CAMPO_LUGARES_EMBEBIDOS = "lugares";
+    private static final String CAMPO_LISTAS_EMBEBIDAS = "ListasCompra";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${inventario.migracion.grupos.habilitada:true}")
+    private boolean habilitada;
+
+    @Value("${inventario.migracion.grupos.tamano-lote:100}")
+    private int tamanoLote;
+
+    @Scheduled(initialDelayString = "${inventario.migracion.grupos.retraso-inicial-ms:30000}",
+            fixedDelayString = "${inventario.migracion.grupos.intervalo-ms:300000}")
+    public void migrarGruposEmbebidos() {
+        if (!habilitada) {
+            return;
+        }
+
+        int migrados = 0;
+        int procesadosEnLote;
+        do {
+            procesadosEnLote = migrarLote();
+            migrados += procesadosEnLote;
+        } while (procesadosEnLote == tamanoLote);
+
+        if (migrados > 0) {
+            log.info("Migrados {} grupos familiares al formato por referencias", migrados);
+        }
+    }
+
+    private int migrarLote() {
+        Query query = new Query(new Criteria().orOperator(
+                Criteria.where(CAMPO_LUGARES_EMBEBIDOS).exists(true),
+                Criteria.where(CAMPO_LISTAS_EMBEBIDAS).exists(true)))
+                .limit(tamanoLote);
+        query.fields()
+                .include(CAMPO_LUGARES_EMBEBIDOS + "._id")
+                .include(CAMPO_LISTAS_EMBEBIDAS + "._id");
+
+        List<Document> grupos = mongoTemplate.find(query, Document.class, COLECCION_GRUPOS);
+        for (Document grupo : grupos) {
+            // Incrementar la version invalida cualquier lectura previa del grupo que luego se guarde completa
+            Update update = new Update()
+                    .unset(CAMPO_LUGARES_EMBEBIDOS)
+                    .unset(CAMPO_LISTAS_EMBEBIDAS)
+                    .inc("version", 1);
+
+            List<String> lugarIds = extraerIds(grupo, CAMPO_LUGARES_EMBEBIDOS);
+            if (!lugarIds.isEmpty()) {
+                update.addToSet("lugarIds").each(lugarIds.toArray());
+            }
+            List<String> listaCompraIds = extraerIds(grupo, CAMPO_LISTAS_EMBEBIDAS);
+            if (!listaCompraIds.isEmpty()) {
+                update.addToSet("listaCompraIds").each(listaCompraIds.toArray());
+            }
+
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(grupo.get("_id"))), update, COLECCION_GRUPOS);
+        }
+        return grupos.size();
+    }
+
+    private List<String> extraerIds(Document grupo, String campo) {
+        List<String> ids = new ArrayList<>();
+        List<Document> embebidos = grupo.getList(campo, Document.class);
+        if (embebidos != null) {
+            for (Document embebido : embebidos) {
+                Object id = embebido.get("_id");
+                if (id != null) {
+                    ids.add(id.toString());
+                }
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.home_inventory.services;
+
+import io.micrometer.core.annotation.Timed;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Asigna en segundo plano un id a los elementos de las listas de compra guardados antes de que lo tuvieran.
+ * Cada id se asigna con una actualizacion posicional independiente, asi no se pisa ningun cambio que un
+ * miembro haga sobre la misma lista mientras tanto.
+ */
+@Service
+@Timed(value = "inventario.servicio", histogram = true)
+public class MigracionListaCompraService {
+
+    private static final Logger log = LoggerFactory.getLogger(MigracionListaCompraService.class);
+
+    private static final String COLECCION_LISTAS = "ListaCompra";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${inventario.migracion.listas.habilitada:true}")
+    private boolean habilitada;
+
+    @Value("${inventario.migracion.listas.tamano-lote:100}")
+    private int tamanoLote;
+
+    @Scheduled(initialDelayString = "${inventario.migracion.listas.retraso-inicial-ms:30000}",
+            fixedDelayString = "${inventario.migracion.listas.intervalo-ms:300000}")
+    public void asignarIdsElementos() {
+        if (!habilitada) {
+            return;
+        }
+
+        int migradas = 0;
+        int procesadasEnLote;
+        do {
+            procesadasEnLote = migrarLote();
+            migradas += procesadasEnLote;
+        } while (procesadasEnLote == tamanoLote);
+
+        if (migradas > 0) {
+            log.info("Asignados ids a los elementos de {} listas de compra", migradas);
+        }
+    }
+
+    private int migrarLote() {
+        Query pendientes = new Query(elementoSinId()).limit(tamanoLote);
+        pendientes.fields().include("_id");
+        List<Object> ids = mongoTemplate.find(pendientes, Document.class, COLECCION_LISTAS).stream()
+                .map(lista -> lista.get("_id"))
+                .toList();
+
+        for (Object listaId : ids) {
+            Query query = new Query(Criteria.where("_id").is(listaId).andOperator(elementoSinId()));
+            // Cada actualizacion completa el primer elemento sin id; se repite hasta que no quede ninguno
+            long modificados;
+            do {
+                modificados = mongoTemplate.updateFirst(query,
+                        new Update().set("productosLista.$._id", new ObjectId()), COLECCION_LISTAS).getModifiedCount();
+            } while (modificados > 0);
+        }
+        return ids.size();
+    }
+
+    private Criteria elementoSinId() {
+        return Criteria.where("productosLista").elemMatch(Criteria.where("_id").exists(false));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.home_inventory.services;
+
+import io.micrometer.core.annotation.Timed;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Completa en segundo plano lugarId y grupoFamiliarId en los productos creados antes de que se guardaran,
+ * buscando el lugar que los contiene por el indice productos._id. Los productos huerfanos quedan con
+ * lugarId nulo para no volver a procesarlos.
+ */
+@Service
+@Timed(value = "inventario.servicio", histogram = true)
+public class MigracionProductoService {
+
+    private static final Logger log = LoggerFactory.getLogger(MigracionProductoService.class);
+
+    private static final String COLECCION_PRODUCTOS = "Producto";
+    private static final String COLECCION_LUGARES = "Lugar";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${inventario.migracion.productos.habilitada:true}")
+    private boolean habilitada;
+
+    @Value("${inventario.migracion.productos.tamano-lote:500}")
+    private int tamanoLote;
+
+    @Scheduled(initialDelayString = "${inventario.migracion.productos.retraso-inicial-ms:30000}",
+            fixedDelayString = "${inventario.migracion.productos.intervalo-ms:300000}")
+    public void completarReferencias() {
+        if (!habilitada) {
+            return;
+        }
+
+        int migrados = 0;
+        int procesadosEnLote;
+        do {
+            procesadosEnLote = migrarLote();
+            migrados += procesadosEnLote;
+        } while (procesadosEnLote == tamanoLote);
+
+        if (migrados > 0) {
+            log.info("Completadas las referencias de {} productos", migrados);
+        }
+    }
+
+    private int migrarLote() {
+        Query pendientes = new Query(Criteria.where("lugarId").exists(false)).limit(tamanoLote);
+        pendientes.fields().include("_id");
+        List<Object> ids = mongoTemplate.find(pendientes, Document.class, COLECCION_PRODUCTOS).stream()
+                .map(producto -> producto.get("_id"))
+                .toList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        Query lugaresQuery = new Query(Criteria.where("productos._id").in(ids));
+        lugaresQuery.fields().include("_id").include("grupoFamiliarId").include("productos._id");
+
+        Set<Object> asignados = new HashSet<>();
+        for (Document lugar : mongoTemplate.find(lugaresQuery, Document.class, COLECCION_LUGARES)) {
+            List<Object> idsEnLugar = lugar.getList("productos", Document.class, List.of()).stream()
+                    .map(producto -> producto.get("_id"))
+                    .filter(ids::contains)
+                    .toList();
+            Update update = new Update()
+                    .set("lugarId", lugar.get("_id").toString())
+                    .set("grupoFamiliarId", lugar.getString("grupoFamiliarId"));
+            mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(idsEnLugar)), update, COLECCION_PRODUCTOS);
+            asignados.addAll(idsEnLugar);
+        }
+
+        List<Object> huerfanos = ids.stream().filter(id -> !asignados.contains(id)).toList();
+        if (!huerfanos.isEmpty()) {
+            mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(huerfanos)),
+                    new Update().set("lugarId", null).set("grupoFamiliarId", null), COLECCION_PRODUCTOS);
+        }
+        return ids.size();
+    }
+}
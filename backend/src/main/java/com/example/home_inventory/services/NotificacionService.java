@@ -1,83 +1,240 @@
 package com.example.home_inventory.services;
 
+import com.example.home_inventory.events.ProductoModificadoEvent;
+import com.example.home_inventory.events.ProductosImportadosEvent;
+import com.example.home_inventory.models.EstadoTarea;
 import com.example.home_inventory.models.Notificacion;
 import com.example.home_inventory.models.Producto;
-import com.example.home_inventory.repository.NotificacionRepository;
-import com.example.home_inventory.repository.ProductoRepository;
+import com.example.home_inventory.models.PaginaNotificaciones;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
+import java.util.Objects;
 
+/**
+ * Genera las notificaciones de cantidad baja y expiracion proxima a partir de los cambios de cada producto,
+ * sin recorrer todo el catalogo. Las expiraciones que se acercan con el paso del tiempo se detectan con una
+ * consulta por rango sobre el indice de expiracion que solo cubre los dias nuevos desde la ultima revision,
+ * guardada en {@link EstadoTarea}.
+ */
 @Service
+@Timed(value = "inventario.servicio", histogram = true)
 public class NotificacionService {
 
-    @Autowired
-    private NotificacionRepository notificacionRepository;
+    private static final Logger log = LoggerFactory.getLogger(NotificacionService.class);
+
+    public static final String TIPO_CANTIDAD_BAJA = "CANTIDAD_BAJA";
+    public static final String TIPO_EXPIRACION_PROXIMA = "EXPIRACION_PROXIMA";
+
+    public static final int LIMITE_PAGINA_MAXIMO = 100;
 
     @Autowired
-    private ProductoRepository productoRepository;
+    private MongoTemplate mongoTemplate;
 
-    /*
-    @Scheduled(cron = "")
-    public void verificarProductos() {
-        List<Producto> productos = productoRepository.findAll();
-        LocalDate hoy = LocalDate.now();
-        LocalDate limiteExpiracion = hoy.plusDays(5);
+    @Value("${inventario.notificaciones.dias-aviso-expiracion:5}")
+    private int diasAvisoExpiracion;
 
-        for (Producto producto : productos) {
-            // Verificar cantidad mínima
-            if (producto.getCantidad() < producto.getCantidadMinima()) {
-                crearNotificacion(
-                        producto.getId(),
-                        "El producto '" + producto.getNombre() + "' tiene cantidad baja (" +
-                                producto.getCantidad() + "/" + producto.getCantidadMinima() + ")",
-                        "CANTIDAD_BAJA"
-                );
+    // Documento de EstadoTarea con el ultimo dia de expiracion ya revisado
+    private static final String TAREA_EXPIRACIONES = "notificaciones.expiraciones";
+
+    // Despues de confirmar el cambio del producto, en su propia transaccion
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onProductoModificado(ProductoModificadoEvent evento) {
+        Producto anterior = evento.anterior();
+        Producto actual = evento.actual();
+
+        if (actual == null) {
+            mongoTemplate.remove(new Query(Criteria.where("productoId").is(anterior.getId())), Notificacion.class);
+            return;
+        }
+
+        boolean cambioCantidad = anterior == null
+                || anterior.getCantidad() != actual.getCantidad()
+                || anterior.getCantidadMinima() != actual.getCantidadMinima();
+        if (cambioCantidad) {
+            if (cantidadBaja(actual)) {
+                registrarNotificacion(actual, mensajeCantidadBaja(actual), TIPO_CANTIDAD_BAJA);
+            } else if (anterior != null && cantidadBaja(anterior)) {
+                eliminarNotificacion(actual.getId(), TIPO_CANTIDAD_BAJA);
             }
+        }
 
-            // Verificar expiración
-            if (producto.getExpiracion() != null &&
-                    !producto.getExpiracion().isAfter(limiteExpiracion)) {
-                crearNotificacion(
-                        producto.getId(),
-                        "El producto '" + producto.getNombre() + "' expira pronto (" +
-                                producto.getExpiracion() + ")",
-                        "EXPIRACION_PROXIMA"
-                );
+        boolean cambioExpiracion = anterior == null || !Objects.equals(anterior.getExpiracion(), actual.getExpiracion());
+        if (cambioExpiracion) {
+            if (expiraPronto(actual, LocalDate.now())) {
+                registrarNotificacion(actual, mensajeExpiracion(actual), TIPO_EXPIRACION_PROXIMA);
+            } else if (anterior != null && anterior.getExpiracion() != null) {
+                eliminarNotificacion(actual.getId(), TIPO_EXPIRACION_PROXIMA);
             }
         }
-    }*/
-
-    private void crearNotificacion(String productoId, String mensaje, String tipo) {
-        Notificacion notificacion = new Notificacion();
-        notificacion.setProductoId(productoId);
-        notificacion.setMensaje(mensaje);
-        notificacion.setTipo(tipo);
-        notificacion.setFechaCreacion(LocalDateTime.now());
-        notificacion.setLeida(false);
-        notificacionRepository.save(notificacion);
     }
 
-    public List<Notificacion> obtenerNotificacionesNoLeidas() {
-        return notificacionRepository.findByLeidaFalse();
+    // Un lote importado se resuelve con una sola escritura masiva en lugar de una por producto
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductosImportados(ProductosImportadosEvent evento) {
+        LocalDate hoy = LocalDate.now();
+        BulkOperations notificaciones = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Notificacion.class);
+        int pendientes = 0;
+        for (Producto producto : evento.productos()) {
+            if (cantidadBaja(producto)) {
+                notificaciones.upsert(consultaNotificacion(producto.getId(), TIPO_CANTIDAD_BAJA),
+                        actualizacionNotificacion(producto, mensajeCantidadBaja(producto)));
+                pendientes++;
+            }
+            if (expiraPronto(producto, hoy)) {
+                notificaciones.upsert(consultaNotificacion(producto.getId(), TIPO_EXPIRACION_PROXIMA),
+                        actualizacionNotificacion(producto, mensajeExpiracion(producto)));
+                pendientes++;
+            }
+        }
+        if (pendientes > 0) {
+            notificaciones.execute();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${inventario.notificaciones.retraso-inicial-ms:60000}",
+            fixedDelayString = "${inventario.notificaciones.intervalo-ms:3600000}")
+    public void revisarExpiraciones() {
+        LocalDate hoy = LocalDate.now();
+        LocalDate limite = hoy.plusDays(diasAvisoExpiracion);
+        EstadoTarea estado = mongoTemplate.findById(TAREA_EXPIRACIONES, EstadoTarea.class);
+        LocalDate desde = estado != null ? estado.getUltimaFecha() : null;
+        if (desde != null && !limite.isAfter(desde)) {
+            return;
+        }
+
+        // Solo los productos que entraron en la ventana de aviso desde la ultima revision. El limite revisado se
+        // guarda en Mongo, asi tras un reinicio se retoma desde ahi y se cubre lo que vencio con la aplicacion
+        // detenida; la primera revision de todas empieza en hoy
+        Criteria rango = desde == null
+                ? Criteria.where("expiracion").gte(hoy).lte(limite)
+                : Criteria.where("expiracion").gt(desde).lte(limite);
+        Query query = new Query(rango);
+        query.fields().include("nombre", "expiracion", "grupoFamiliarId");
+
+        List<Producto> productos = mongoTemplate.find(query, Producto.class);
+        for (Producto producto : productos) {
+            registrarNotificacion(producto, mensajeExpiracion(producto), TIPO_EXPIRACION_PROXIMA);
+        }
+        mongoTemplate.save(new EstadoTarea(TAREA_EXPIRACIONES, limite));
+        log.info("Revision de expiraciones hasta {}: {} productos", limite, productos.size());
+    }
+
+    private boolean cantidadBaja(Producto producto) {
+        return producto.getCantidad() < producto.getCantidadMinima();
+    }
+
+    private boolean expiraPronto(Producto producto, LocalDate hoy) {
+        return producto.getExpiracion() != null
+                && !producto.getExpiracion().isAfter(hoy.plusDays(diasAvisoExpiracion));
+    }
+
+    private String mensajeCantidadBaja(Producto producto) {
+        return "El producto '" + producto.getNombre() + "' tiene cantidad baja (" +
+                producto.getCantidad() + "/" + producto.getCantidadMinima() + ")";
+    }
+
+    private String mensajeExpiracion(Producto producto) {
+        return "El producto '" + producto.getNombre() + "' expira pronto (" + producto.getExpiracion() + ")";
+    }
+
+    /**
+     * Crea la notificacion si no existe una del mismo tipo para el producto; si ya existe solo actualiza el
+     * mensaje y conserva su estado de lectura. El indice unico (productoId, tipo) evita duplicados.
+     */
+    private void registrarNotificacion(Producto producto, String mensaje, String tipo) {
+        mongoTemplate.upsert(consultaNotificacion(producto.getId(), tipo),
+                actualizacionNotificacion(producto, mensaje), Notificacion.class);
+    }
+
+    private Query consultaNotificacion(String productoId, String tipo) {
+        return new Query(Criteria.where("productoId").is(productoId).and("tipo").is(tipo));
+    }
+
+    private Update actualizacionNotificacion(Producto producto, String mensaje) {
+        return new Update()
+                .set("mensaje", mensaje)
+                .set("grupoFamiliarId", producto.getGrupoFamiliarId())
+                .setOnInsert("fechaCreacion", LocalDateTime.now())
+                .setOnInsert("leida", false);
+    }
+
+    private void eliminarNotificacion(String productoId, String tipo) {
+        mongoTemplate.remove(new Query(Criteria.where("productoId").is(productoId).and("tipo").is(tipo)),
+                Notificacion.class);
+    }
+
+    public PaginaNotificaciones obtenerNotificacionesNoLeidas(String grupoFamiliarId, String cursor, int limite) {
+        if (limite < 1 || limite > LIMITE_PAGINA_MAXIMO) {
+            throw new IllegalArgumentException("El limite debe estar entre 1 y " + LIMITE_PAGINA_MAXIMO);
+        }
+
+        Criteria criteria = Criteria.where("grupoFamiliarId").is(grupoFamiliarId).and("leida").is(false);
+        if (cursor != null && !cursor.isBlank()) {
+            criteria = criteria.andOperator(condicionCursor(cursor));
+        }
+        // Se pide un elemento extra para saber si hay una pagina siguiente
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "fechaCreacion", "id"))
+                .limit(limite + 1);
+
+        List<Notificacion> notificaciones = mongoTemplate.find(query, Notificacion.class);
+        String siguienteCursor = null;
+        if (notificaciones.size() > limite) {
+            notificaciones = notificaciones.subList(0, limite);
+            Notificacion ultima = notificaciones.get(limite - 1);
+            String contenido = ultima.getFechaCreacion() + "|" + ultima.getId();
+            siguienteCursor = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(contenido.getBytes(StandardCharsets.UTF_8));
+        }
+        return new PaginaNotificaciones(notificaciones, siguienteCursor);
+    }
+
+    private Criteria condicionCursor(String cursor) {
+        LocalDateTime fecha;
+        String ultimoId;
+        try {
+            String contenido = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = contenido.lastIndexOf('|');
+            fecha = LocalDateTime.parse(contenido.substring(0, separador));
+            ultimoId = contenido.substring(separador + 1);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+        return new Criteria().orOperator(
+                Criteria.where("fechaCreacion").lt(fecha),
+                new Criteria().andOperator(Criteria.where("fechaCreacion").is(fecha), Criteria.where("id").lt(ultimoId)));
     }
 
-    public void marcarComoLeida(String id) {
-        notificacionRepository.findById(id).ifPresent(notificacion -> {
-            notificacion.setLeida(true);
-            notificacionRepository.save(notificacion);
-        });
+    public boolean marcarComoLeida(String id, String grupoFamiliarId) {
+        Query query = new Query(Criteria.where("id").is(id).and("grupoFamiliarId").is(grupoFamiliarId));
+        return mongoTemplate.updateFirst(query, Update.update("leida", true), Notificacion.class)
+                .getMatchedCount() > 0;
     }
 
-    public void marcarTodasComoLeidas() {
-        List<Notificacion> notificacionesNoLeidas = notificacionRepository.findByLeidaFalse();
-        notificacionesNoLeidas.forEach(notificacion -> {
-            notificacion.setLeida(true);
-            notificacionRepository.save(notificacion);
-        });
+    public long marcarTodasComoLeidas(String grupoFamiliarId) {
+        Query query = new Query(Criteria.where("grupoFamiliarId").is(grupoFamiliarId).and("leida").is(false));
+        return mongoTemplate.updateMulti(query, Update.update("leida", true), Notificacion.class)
+                .getModifiedCount();
     }
 }
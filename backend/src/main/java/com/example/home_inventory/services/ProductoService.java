@@ -1,27 +1,43 @@
 package com.example.home_inventory.services;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 
+import com.example.home_inventory.events.ProductoModificadoEvent;
 import com.example.home_inventory.models.Categoria;
+import com.example.home_inventory.models.FiltroProductos;
 import com.example.home_inventory.models.Lugar;
-import com.example.home_inventory.repository.CategoriaRepository;
-import com.example.home_inventory.repository.GrupoFamiliarRepository;
+import com.example.home_inventory.models.PaginaProductos;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 
 import org.springframework.stereotype.Service;
 
 import com.example.home_inventory.models.Producto;
 import com.example.home_inventory.repository.ProductoRepository;
 import com.example.home_inventory.repository.LugarRepository;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
-
 @Service
+@Timed(value = "inventario.servicio", histogram = true)
 public class ProductoService {
 
+    public static final int LIMITE_PAGINA_MAXIMO = 200;
+
+    private static final List<String> CAMPOS_ORDEN = List.of("nombre", "cantidad", "expiracion");
+
     @Autowired
     private ProductoRepository productoRepository;
 
@@ -29,19 +45,120 @@ public class ProductoService {
     private LugarRepository lugarRepositorio;
 
     @Autowired
-    private CategoriaRepository categoriaRepository;
+    private CategoriaService categoriaService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    private GrupoFamiliarRepository grupoFamiliarRepository;
+    private RelayOutboxService relayOutboxService;
+
+    public PaginaProductos buscarProductos(String grupoFamiliarId, FiltroProductos filtro, String orden,
+                                           boolean descendente, String cursor, int limite) {
+        if (!CAMPOS_ORDEN.contains(orden)) {
+            throw new IllegalArgumentException("Orden no soportado: " + orden);
+        }
+        if (limite < 1 || limite > LIMITE_PAGINA_MAXIMO) {
+            throw new IllegalArgumentException("El limite debe estar entre 1 y " + LIMITE_PAGINA_MAXIMO);
+        }
 
-    public List<Producto> findAllLugares() {
-        return productoRepository.findAll();
+        List<Criteria> condiciones = new ArrayList<>();
+        condiciones.add(Criteria.where("grupoFamiliarId").is(grupoFamiliarId));
+        if (filtro.categoria() != null && !filtro.categoria().isBlank()) {
+            condiciones.add(Criteria.where("categoria.nombre").is(filtro.categoria().toLowerCase().trim()));
+        }
+        if (filtro.lugarId() != null && !filtro.lugarId().isBlank()) {
+            condiciones.add(Criteria.where("lugarId").is(filtro.lugarId()));
+        }
+        if (filtro.venceAntes() != null) {
+            condiciones.add(Criteria.where("expiracion").lt(filtro.venceAntes()));
+        }
+        if (filtro.bajoMinimo()) {
+            condiciones.add(Criteria.expr(ComparisonOperators.valueOf("cantidad").lessThan("cantidadMinima")));
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            condiciones.add(condicionCursor(orden, descendente, cursor));
+        }
+
+        Sort.Direction direccion = descendente ? Sort.Direction.DESC : Sort.Direction.ASC;
+        // Se pide un elemento extra para saber si hay una pagina siguiente
+        Query query = new Query(new Criteria().andOperator(condiciones))
+                .with(Sort.by(direccion, orden).and(Sort.by(direccion, "id")))
+                .limit(limite + 1);
+
+        List<Producto> productos = mongoTemplate.find(query, Producto.class);
+        String siguienteCursor = null;
+        if (productos.size() > limite) {
+            productos = productos.subList(0, limite);
+            siguienteCursor = codificarCursor(orden, productos.get(limite - 1));
+        }
+        return new PaginaProductos(productos, siguienteCursor);
     }
-    
+
+    private String codificarCursor(String orden, Producto ultimo) {
+        Object valor = switch (orden) {
+            case "cantidad" -> ultimo.getCantidad();
+            case "expiracion" -> ultimo.getExpiracion();
+            default -> ultimo.getNombre();
+        };
+        String contenido = (valor == null ? "n:" : "v:" + valor) + "|" + ultimo.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Criteria condicionCursor(String orden, boolean descendente, String cursor) {
+        String contenido;
+        try {
+            contenido = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+        int separador = contenido.lastIndexOf('|');
+        if (separador < 2) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+        String ultimoId = contenido.substring(separador + 1);
+        String valorCodificado = contenido.substring(0, separador);
+
+        Object valor;
+        try {
+            valor = valorCodificado.startsWith("v:") ? convertirValorOrden(orden, valorCodificado.substring(2)) : null;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+
+        // Los nulos van primero en orden ascendente y al final en descendente
+        if (valor == null) {
+            Criteria mismoValor = new Criteria().andOperator(
+                    Criteria.where(orden).is(null),
+                    descendente ? Criteria.where("id").lt(ultimoId) : Criteria.where("id").gt(ultimoId));
+            return descendente ? mismoValor : new Criteria().orOperator(mismoValor, Criteria.where(orden).ne(null));
+        }
+
+        Criteria mismoValor = new Criteria().andOperator(
+                Criteria.where(orden).is(valor),
+                descendente ? Criteria.where("id").lt(ultimoId) : Criteria.where("id").gt(ultimoId));
+        if (descendente) {
+            return new Criteria().orOperator(Criteria.where(orden).lt(valor), mismoValor, Criteria.where(orden).is(null));
+        }
+        return new Criteria().orOperator(Criteria.where(orden).gt(valor), mismoValor);
+    }
+
+    private Object convertirValorOrden(String orden, String valor) {
+        return switch (orden) {
+            case "cantidad" -> Integer.parseInt(valor);
+            case "expiracion" -> LocalDate.parse(valor);
+            default -> valor;
+        };
+    }
+
     public Optional<Producto> findByNombre(String nombre) {
         return productoRepository.findByNombre(nombre);
     }
 
+    @Transactional
     public Producto createProducto(String nombre, String descripcion, int cantidad, int cantidadMinima, LocalDate expiracion, String lugarId) {
         Producto producto = new Producto();
         producto.setNombre(nombre);
@@ -49,94 +166,60 @@ public class ProductoService {
         producto.setCantidad(cantidad);
         producto.setCantidadMinima(cantidadMinima);
         producto.setExpiracion(expiracion);
-        Producto saved = productoRepository.insert(producto);
 
-        if (saved.getId() != null && lugarId != null) {
-            lugarRepositorio.findById(lugarId).ifPresent(lugar -> {
-                if (lugar.getProductos() == null) {
-                    lugar.setProductos(new ArrayList<>());
-                }
-                lugar.getProductos().add(saved);
-                Lugar lugarActualizado = lugarRepositorio.save(lugar);
-
-                // Actualizar en GrupoFamiliar
-                actualizarProductosEnLugarDeGrupoFamiliar(lugarActualizado);
-            });
+        if (lugarId != null) {
+            // Solo se necesita el grupo del lugar para poder filtrar los productos por grupo
+            Query lugarQuery = new Query(Criteria.where("id").is(lugarId));
+            lugarQuery.fields().include("grupoFamiliarId");
+            Lugar lugar = mongoTemplate.findOne(lugarQuery, Lugar.class);
+            producto.setLugarId(lugarId);
+            producto.setGrupoFamiliarId(lugar != null ? lugar.getGrupoFamiliarId() : null);
         }
+        Producto saved = productoRepository.insert(producto);
 
-        return saved;
-    }
-
-    private void actualizarProductosEnLugarDeGrupoFamiliar(Lugar lugarActualizado) {
-        String grupoFamiliarId = lugarActualizado.getGrupoFamiliarId();
-        if (grupoFamiliarId != null) {
-            grupoFamiliarRepository.findById(grupoFamiliarId).ifPresent(grupo -> {
-                if (grupo.getLugares() != null) {
-                    for (int i = 0; i < grupo.getLugares().size(); i++) {
-                        if (grupo.getLugares().get(i).getId().equals(lugarActualizado.getId())) {
-                            grupo.getLugares().set(i, lugarActualizado);
-                            grupoFamiliarRepository.save(grupo);
-                            break;
-                        }
-                    }
-                }
-            });
-        }
-    }
-
-    private void actualizarProductoEnLugaresYGrupos(String productoId, Producto productoActualizado) {
-        List<Lugar> lugares = lugarRepositorio.findAll();
-        for (Lugar lugar : lugares) {
-            if (lugar.getProductos() != null) {
-                boolean actualizado = false;
-                for (int i = 0; i < lugar.getProductos().size(); i++) {
-                    if (lugar.getProductos().get(i).getId().equals(productoId)) {
-                        lugar.getProductos().set(i, productoActualizado);
-                        actualizado = true;
-                        break;
-                    }
-                }
-                if (actualizado) {
-                    Lugar lugarActualizado = lugarRepositorio.save(lugar);
-                    actualizarProductosEnLugarDeGrupoFamiliar(lugarActualizado);
-                }
-            }
+        // La copia embebida en el lugar la agrega el relay del outbox
+        if (lugarId != null) {
+            relayOutboxService.registrar(saved);
         }
-    }
 
-    private void eliminarProductoDeLugaresYGrupos(String productoId) {
-        List<Lugar> lugares = lugarRepositorio.findAll();
-        for (Lugar lugar : lugares) {
-            if (lugar.getProductos() != null) {
-                boolean eliminado = lugar.getProductos().removeIf(p -> p.getId().equals(productoId));
-                if (eliminado) {
-                    Lugar lugarActualizado = lugarRepositorio.save(lugar);
-                    actualizarProductosEnLugarDeGrupoFamiliar(lugarActualizado);
-                }
-            }
-        }
+        eventPublisher.publishEvent(new ProductoModificadoEvent(null, saved));
+        return saved;
     }
 
+    /**
+     * Descuenta una unidad del producto y lo elimina cuando era la ultima. El descuento es atomico en Mongo:
+     * dos llamadas concurrentes nunca descuentan sobre la misma cantidad leida.
+     */
     @Transactional
     public boolean deleteProductoById(String id) {
-        Optional<Producto> opt = productoRepository.findById(id);
-        if (!opt.isPresent()) {
-            return false;
-        }
-        Producto producto = opt.get();
-        if (producto.getCantidad() > 1) {
-            producto.setCantidad(producto.getCantidad() - 1);
-            Producto actualizado = productoRepository.save(producto);
+        while (true) {
+            Producto actualizado = mongoTemplate.findAndModify(
+                    new Query(Criteria.where("id").is(id).and("cantidad").gt(1)),
+                    new Update().inc("cantidad", -1),
+                    FindAndModifyOptions.options().returnNew(true),
+                    Producto.class);
+            if (actualizado != null) {
+                Producto anterior = copiar(actualizado);
+                anterior.setCantidad(actualizado.getCantidad() + 1);
+                relayOutboxService.registrar(actualizado);
+                eventPublisher.publishEvent(new ProductoModificadoEvent(anterior, actualizado));
+                return true;
+            }
 
-            // Actualizar en lugares y sincronizar con GrupoFamiliar
-            actualizarProductoEnLugaresYGrupos(id, actualizado);
-        } else {
-            productoRepository.deleteById(id);
+            // Queda una unidad o ninguna: se elimina solo si sigue asi
+            Producto eliminado = mongoTemplate.findAndRemove(
+                    new Query(Criteria.where("id").is(id).and("cantidad").lte(1)), Producto.class);
+            if (eliminado != null) {
+                relayOutboxService.registrar(eliminado);
+                eventPublisher.publishEvent(new ProductoModificadoEvent(eliminado, null));
+                return true;
+            }
 
-            // Eliminar de lugares y sincronizar con GrupoFamiliar
-            eliminarProductoDeLugaresYGrupos(id);
+            // Ninguna condicion se cumplio: o ya no existe o alguien subio la cantidad entre ambas operaciones
+            if (!mongoTemplate.exists(new Query(Criteria.where("id").is(id)), Producto.class)) {
+                return false;
+            }
         }
-        return true;
     }
 
     @Transactional
@@ -147,11 +230,13 @@ public class ProductoService {
         }
 
         productoRepository.deleteById(id);
-        eliminarProductoDeLugaresYGrupos(id);
+        relayOutboxService.registrar(opt.get());
+        eventPublisher.publishEvent(new ProductoModificadoEvent(opt.get(), null));
 
         return true;
     }
 
+    @Transactional
     public Producto asignarCategoria(String productoId, String categoriaNombre) {
         Optional<Producto> productoOpt = productoRepository.findById(productoId);
         if (productoOpt.isEmpty()) {
@@ -159,19 +244,26 @@ public class ProductoService {
         }
 
         String categoriaNormalizada = categoriaNombre.toLowerCase().trim();
-        Optional<Categoria> categoriaOpt = categoriaRepository.findByNombre(categoriaNormalizada);
+        Optional<Categoria> categoriaOpt = categoriaService.buscarPorNombre(categoriaNormalizada);
         if (categoriaOpt.isEmpty()) {
             throw new IllegalArgumentException("No existe la categoría especificada");
         }
 
         Producto producto = productoOpt.get();
+        Producto anterior = copiar(producto);
         producto.setCategoria(categoriaOpt.get());
         Producto productoActualizado = productoRepository.save(producto);
 
-        actualizarProductoEnLugaresYGrupos(productoId, productoActualizado);
+        relayOutboxService.registrar(productoActualizado);
+        eventPublisher.publishEvent(new ProductoModificadoEvent(anterior, productoActualizado));
 
         return productoActualizado;
     }
 
-
+    // Foto del estado previo para que los oyentes puedan comparar; el producto original se modifica en el lugar
+    private Producto copiar(Producto producto) {
+        return new Producto(producto.getId(), producto.getNombre(), producto.getDescripcion(), producto.getCantidad(),
+                producto.getCantidadMinima(), producto.getExpiracion(), producto.getCategoria(),
+                producto.getLugarId(), producto.getGrupoFamiliarId());
+    }
 }
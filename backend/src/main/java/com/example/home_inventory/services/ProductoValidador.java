@@ -0,0 +1,54 @@
+package com.example.home_inventory.services;
+
+import com.example.home_inventory.models.ProductoEntrada;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * Reglas de validacion de los datos de un producto, compartidas por la creacion individual y la importacion masiva.
+ */
+public final class ProductoValidador {
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    private ProductoValidador() {
+    }
+
+    public static ProductoEntrada validar(Map<String, String> payload) {
+        if (payload == null || payload.get("nombre") == null || payload.get("nombre").isBlank()) {
+            throw new IllegalArgumentException("El nombre es obligatorio");
+        }
+
+        // parse integers safely
+        int cantidad = 0;
+        int cantidadMinima = 0;
+        try {
+            if (payload.get("cantidad") != null)
+                cantidad = Integer.parseInt(payload.get("cantidad"));
+            if (payload.get("cantidadMinima") != null)
+                cantidadMinima = Integer.parseInt(payload.get("cantidadMinima"));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Formato de número inválido");
+        }
+
+        //cantidad debe ser >= cantidadMinima
+        if (cantidad < cantidadMinima) {
+            throw new IllegalArgumentException("La cantidad no puede ser menor a la cantidad mínima");
+        }
+
+        // parse date with expected format dd-MM-yyyy (e.g. 10-10-2025)
+        LocalDate expiracion = null;
+        if (payload.get("expiracion") != null) {
+            try {
+                expiracion = LocalDate.parse(payload.get("expiracion"), FORMATO_FECHA);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("El formato de fecha dd-MM-yyyy es incorrecto");
+            }
+        }
+
+        return new ProductoEntrada(payload.get("nombre"), payload.get("descripcion"), cantidad, cantidadMinima, expiracion);
+    }
+}
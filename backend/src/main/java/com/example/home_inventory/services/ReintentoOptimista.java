@@ -0,0 +1,68 @@
+package com.example.home_inventory.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Reintenta una operacion de lectura-modificacion-escritura cuando otra solicitud cambio el mismo documento
+ * entre la lectura y el guardado (conflicto de {@code @Version}). Espera un tiempo aleatorio que crece en
+ * cada intento y se rinde tras un numero acotado de intentos.
+ */
+@Component
+public class ReintentoOptimista {
+
+    private static final Logger log = LoggerFactory.getLogger(ReintentoOptimista.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${inventario.concurrencia.intentos-maximos:4}")
+    private int intentosMaximos;
+
+    @Value("${inventario.concurrencia.espera-inicial-ms:10}")
+    private long esperaInicialMs;
+
+    @Value("${inventario.concurrencia.espera-maxima-ms:200}")
+    private long esperaMaximaMs;
+
+    public <T> T ejecutar(String operacion, Supplier<T> accion) {
+        long espera = esperaInicialMs;
+        for (int intento = 1; ; intento++) {
+            try {
+                return accion.get();
+            } catch (OptimisticLockingFailureException e) {
+                contador("inventario.concurrencia.conflictos", operacion).increment();
+                if (intento >= intentosMaximos) {
+                    contador("inventario.concurrencia.reintentos.agotados", operacion).increment();
+                    log.warn("La operacion {} no pudo completarse tras {} conflictos de version", operacion, intento);
+                    throw new RuntimeException("El recurso fue modificado por otra solicitud, intenta de nuevo");
+                }
+                esperar(espera);
+                espera = Math.min(espera * 2, esperaMaximaMs);
+            }
+        }
+    }
+
+    private Counter contador(String nombre, String operacion) {
+        return Counter.builder(nombre).tag("operacion", operacion).register(meterRegistry);
+    }
+
+    private void esperar(long esperaMaxima) {
+        try {
+            // Espera aleatoria para que las solicitudes en conflicto no vuelvan a chocar al mismo tiempo
+            Thread.sleep(ThreadLocalRandom.current().nextLong(esperaMaxima + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Operación interrumpida");
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.home_inventory.services;
+
+import com.example.home_inventory.models.EventoOutbox;
+import com.example.home_inventory.models.Lugar;
+import com.example.home_inventory.models.Producto;
+import io.micrometer.core.annotation.Timed;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Aplica en segundo plano los eventos del outbox sobre las copias embebidas de los productos en cada lugar.
+ * Cada evento se reserva con findAndModify, por lo que varias instancias pueden procesar el outbox a la vez.
+ * La proyeccion se calcula a partir del estado actual del producto y no del evento, asi que aplicarla
+ * dos veces o fuera de orden deja el lugar en el mismo estado.
+ */
+@Service
+@Timed(value = "inventario.servicio", histogram = true)
+public class RelayOutboxService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RelayOutboxService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${inventario.outbox.reserva-ms:30000}")
+    private long reservaMs;
+
+    @Value("${inventario.outbox.espera-maxima-ms:300000}")
+    private long esperaMaximaMs;
+
+    private final AtomicBoolean procesando = new AtomicBoolean();
+
+    private final ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Registra que el lugar del producto debe actualizarse. Se llama dentro de la transaccion que modifica
+     * el producto para que ambos cambios se confirmen juntos (con {@code inventario.transacciones.habilitadas}).
+     */
+    public void registrar(Producto producto) {
+        Instant ahora = Instant.now();
+        mongoTemplate.insert(new EventoOutbox(null, producto.getId(), ahora, ahora, 0));
+        eventPublisher.publishEvent(new OutboxRegistradoEvent(producto.getId()));
+    }
+
+    /**
+     * Registra de antemano los eventos de un lote que el llamador proyecta en los lugares por su cuenta. Quedan
+     * reservados como si un relay los tuviera: si el llamador termina, los descarta con {@link #descartarLote};
+     * si falla en medio, el relay los aplica cuando vence la reserva y el lugar termina igual.
+     */
+    public List<String> reservarLote(List<Producto> productos) {
+        Instant ahora = Instant.now();
+        Instant reservadoHasta = ahora.plusMillis(reservaMs);
+        List<EventoOutbox> eventos = productos.stream()
+                .map(producto -> new EventoOutbox(null, producto.getId(), ahora, reservadoHasta, 0))
+                .toList();
+        return mongoTemplate.insertAll(eventos).stream().map(EventoOutbox::getId).toList();
+    }
+
+    public void descartarLote(List<String> eventoIds) {
+        mongoTemplate.remove(new Query(Criteria.where("id").in(eventoIds)), EventoOutbox.class);
+    }
+
+    // Procesa lo recien confirmado sin esperar a la siguiente pasada programada
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOutboxRegistrado(OutboxRegistradoEvent evento) {
+        ejecutor.execute(this::procesarPendientes);
+    }
+
+    @Scheduled(fixedDelayString = "${inventario.outbox.intervalo-ms:5000}")
+    public void procesarPendientes() {
+        // Una sola pasada a la vez por instancia; las demas instancias se coordinan con la reserva
+        if (!procesando.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            EventoOutbox evento;
+            while ((evento = reservarSiguiente()) != null) {
+                procesar(evento);
+            }
+        } finally {
+            procesando.set(false);
+        }
+    }
+
+    private EventoOutbox reservarSiguiente() {
+        Instant ahora = Instant.now();
+        Query query = new Query(Criteria.where("disponibleDesde").lte(ahora))
+                .with(Sort.by(Sort.Direction.ASC, "disponibleDesde", "fechaCreacion"));
+        Update reserva = new Update().set("disponibleDesde", ahora.plusMillis(reservaMs));
+        return mongoTemplate.findAndModify(query, reserva, FindAndModifyOptions.options().returnNew(true),
+                EventoOutbox.class);
+    }
+
+    private void procesar(EventoOutbox evento) {
+        try {
+            proyectarEnLugar(evento);
+            mongoTemplate.remove(new Query(Criteria.where("id").is(evento.getId())), EventoOutbox.class);
+        } catch (RuntimeException e) {
+            int intentos = evento.getIntentos() + 1;
+            long espera = Math.min(esperaMaximaMs, 1000L << Math.min(intentos, 20));
+            log.warn("No se pudo aplicar el evento de outbox del producto {} (intento {})",
+                    evento.getProductoId(), intentos, e);
+            mongoTemplate.updateFirst(new Query(Criteria.where("id").is(evento.getId())),
+                    new Update().set("intentos", intentos)
+                            .set("disponibleDesde", Instant.now().plus(Duration.ofMillis(espera))),
+                    EventoOutbox.class);
+        }
+    }
+
+    private void proyectarEnLugar(EventoOutbox evento) {
+        String productoId = evento.getProductoId();
+        Producto actual = mongoTemplate.findById(productoId, Producto.class);
+        Object idProducto = mongoTemplate.getConverter().convertId(productoId, ObjectId.class);
+
+        if (actual == null || actual.getLugarId() == null) {
+            // El producto ya no existe: se quita de cualquier lugar que aun lo tenga
+            mongoTemplate.updateMulti(new Query(Criteria.where("productos.id").is(productoId)),
+                    new Update().pull("productos", new Document("_id", idProducto)), Lugar.class);
+            return;
+        }
+
+        // El indice sobre productos._id de Lugar ubica directamente el lugar que contiene el producto
+        Query enLugar = new Query(Criteria.where("id").is(actual.getLugarId()).and("productos.id").is(productoId));
+        if (mongoTemplate.updateFirst(enLugar, new Update().set("productos.$", actual), Lugar.class)
+                .getMatchedCount() > 0) {
+            return;
+        }
+        // Todavia no esta en el lugar: se agrega solo si no lo agrego otra pasada
+        Query sinProducto = new Query(Criteria.where("id").is(actual.getLugarId())
+                .and("productos.id").ne(productoId));
+        mongoTemplate.updateFirst(sinProducto, new Update().push("productos", actual), Lugar.class);
+    }
+
+    // Las pasadas en curso terminan solas; lo que quede reservado lo retoma otra instancia al vencer la reserva
+    @Override
+    public void destroy() {
+        ejecutor.shutdown();
+    }
+
+    public record OutboxRegistradoEvent(String productoId) {
+    }
+}
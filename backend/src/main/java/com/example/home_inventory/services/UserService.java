@@ -5,6 +5,7 @@ import com.example.home_inventory.models.LoginResponse;
 import com.example.home_inventory.models.User;
 import com.example.home_inventory.models.UserDto;
 import com.example.home_inventory.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -17,6 +18,7 @@ import java.util.Map;
 import java.util.Optional;
 
 @Service
+@Timed(value = "inventario.servicio", histogram = true)
 @AllArgsConstructor
 public class UserService {
 
@@ -0,0 +1,143 @@
+package com.example.home_inventory;
+
+import com.example.home_inventory.models.FiltroProductos;
+import com.example.home_inventory.models.PaginaProductos;
+import com.example.home_inventory.models.Producto;
+import com.example.home_inventory.services.ProductoService;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Recorrer todas las paginas con el cursor debe devolver cada producto del grupo exactamente una vez y en
+ * el mismo orden que una consulta sin paginar: empates resueltos por id, y los productos sin fecha de
+ * expiracion al principio en orden ascendente y al final en descendente.
+ */
+class BuscarProductosTests extends PruebaMongoEnMemoria {
+
+    private static final String GRUPO = "grupo-pruebas";
+    private static final FiltroProductos SIN_FILTRO = new FiltroProductos(null, null, null, false);
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private List<Producto> productos;
+
+    @BeforeEach
+    void sembrar() {
+        mongoTemplate.dropCollection(Producto.class);
+        productos = new ArrayList<>();
+        LocalDate hoy = LocalDate.of(2025, 1, 1);
+        // Nombres, cantidades y fechas repetidos para que los empates se resuelvan por id
+        String[] nombres = {"Arroz", "Leche", "Arroz", "Café", "Leche", "Atún", "Café"};
+        for (int i = 0; i < 14; i++) {
+            Producto producto = new Producto();
+            producto.setId(new ObjectId().toHexString());
+            producto.setNombre(nombres[i % nombres.length]);
+            producto.setCantidad(i % 4);
+            producto.setExpiracion(i % 3 == 0 ? null : hoy.plusDays(i % 5));
+            producto.setLugarId("lugar");
+            producto.setGrupoFamiliarId(GRUPO);
+            productos.add(mongoTemplate.insert(producto));
+        }
+        // Un producto de otro grupo que nunca debe aparecer
+        Producto ajeno = new Producto();
+        ajeno.setNombre("Arroz");
+        ajeno.setGrupoFamiliarId("otro-grupo");
+        mongoTemplate.insert(ajeno);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "nombre, false", "nombre, true",
+            "cantidad, false", "cantidad, true",
+            "expiracion, false", "expiracion, true"})
+    void recorrerLasPaginasDevuelveTodoEnOrden(String orden, boolean descendente) {
+        List<String> recorridos = new ArrayList<>();
+        String cursor = null;
+        int paginas = 0;
+        do {
+            PaginaProductos pagina = productoService.buscarProductos(GRUPO, SIN_FILTRO, orden, descendente, cursor, 3);
+            assertThat(pagina.productos()).hasSizeLessThanOrEqualTo(3);
+            pagina.productos().forEach(p -> recorridos.add(p.getId()));
+            cursor = pagina.siguienteCursor();
+            paginas++;
+        } while (cursor != null && paginas < 20);
+
+        assertThat(cursor).isNull();
+        assertThat(recorridos).containsExactlyElementsOf(esperados(orden, descendente));
+    }
+
+    @Test
+    void sinFechaVanPrimeroEnAscendenteYAlFinalEnDescendente() {
+        List<Producto> ascendente = productoService.buscarProductos(GRUPO, SIN_FILTRO, "expiracion", false, null, 200).productos();
+        List<Producto> descendente = productoService.buscarProductos(GRUPO, SIN_FILTRO, "expiracion", true, null, 200).productos();
+        long sinFecha = productos.stream().filter(p -> p.getExpiracion() == null).count();
+
+        assertThat(ascendente.subList(0, (int) sinFecha)).allMatch(p -> p.getExpiracion() == null);
+        assertThat(descendente.subList(descendente.size() - (int) sinFecha, descendente.size()))
+                .allMatch(p -> p.getExpiracion() == null);
+    }
+
+    @Test
+    void filtrarPorLugarPaginaSoloLosProductosDelLugar() {
+        Producto otroLugar = new Producto();
+        otroLugar.setNombre("Arroz");
+        otroLugar.setLugarId("otro-lugar");
+        otroLugar.setGrupoFamiliarId(GRUPO);
+        mongoTemplate.insert(otroLugar);
+
+        FiltroProductos delLugar = new FiltroProductos(null, "lugar", null, false);
+        List<String> recorridos = new ArrayList<>();
+        String cursor = null;
+        do {
+            PaginaProductos pagina = productoService.buscarProductos(GRUPO, delLugar, "nombre", false, cursor, 4);
+            pagina.productos().forEach(p -> recorridos.add(p.getId()));
+            cursor = pagina.siguienteCursor();
+        } while (cursor != null);
+
+        assertThat(recorridos).containsExactlyElementsOf(esperados("nombre", false));
+    }
+
+    @Test
+    void rechazaCursorLimiteYOrdenInvalidos() {
+        assertThatThrownBy(() -> productoService.buscarProductos(GRUPO, SIN_FILTRO, "nombre", false, "no-es-base64!", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> productoService.buscarProductos(GRUPO, SIN_FILTRO, "nombre", false, null, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> productoService.buscarProductos(GRUPO, SIN_FILTRO, "descripcion", false, null, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<String> esperados(String orden, boolean descendente) {
+        Function<Producto, Comparable<?>> campo = switch (orden) {
+            case "cantidad" -> Producto::getCantidad;
+            case "expiracion" -> Producto::getExpiracion;
+            default -> Producto::getNombre;
+        };
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Comparator<Producto> porCampo = Comparator.comparing(p -> (Comparable) campo.apply(p),
+                Comparator.nullsFirst(Comparator.naturalOrder()));
+        Comparator<Producto> comparador = porCampo.thenComparing(Producto::getId);
+        return productos.stream()
+                .sorted(descendente ? comparador.reversed() : comparador)
+                .map(Producto::getId)
+                .toList();
+    }
+}
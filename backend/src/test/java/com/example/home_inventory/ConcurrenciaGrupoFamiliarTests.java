@@ -0,0 +1,136 @@
+package com.example.home_inventory;
+
+import com.example.home_inventory.models.GrupoFamiliar;
+import com.example.home_inventory.models.Lugar;
+import com.example.home_inventory.models.User;
+import com.example.home_inventory.repository.GrupoFamiliarRepository;
+import com.example.home_inventory.services.GrupoFamiliarService;
+import com.example.home_inventory.services.LugarService;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Los cambios de miembros y las referencias a lugares se escriben sobre el mismo documento del grupo: ninguno
+ * puede pisar al otro cuando se intercalan.
+ */
+class ConcurrenciaGrupoFamiliarTests extends PruebaMongoEnMemoria {
+
+    private static final int MIEMBROS = 5;
+    private static final int LUGARES = 20;
+
+    @Autowired
+    private GrupoFamiliarService grupoFamiliarService;
+
+    @Autowired
+    private LugarService lugarService;
+
+    @Autowired
+    private GrupoFamiliarRepository grupoFamiliarRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private String grupoId;
+    private String creadorId;
+
+    @BeforeEach
+    void sembrar() {
+        mongoTemplate.dropCollection(GrupoFamiliar.class);
+        mongoTemplate.dropCollection(Lugar.class);
+        mongoTemplate.dropCollection(User.class);
+
+        creadorId = guardarUsuario("creador").getId();
+        GrupoFamiliar grupo = new GrupoFamiliar();
+        grupo.setNombre("Casa " + new ObjectId());
+        grupo.setFechaCreacion(LocalDateTime.now());
+        grupo.setCreadorId(creadorId);
+        grupo.setMiembros(new ArrayList<>(List.of(new GrupoFamiliar.MiembroInfo(creadorId, "creador", null))));
+        grupoId = grupoFamiliarRepository.save(grupo).getId();
+    }
+
+    @Test
+    void crearUnLugarInvalidaUnaLecturaPreviaDelGrupo() {
+        GrupoFamiliar leido = grupoFamiliarRepository.findById(grupoId).orElseThrow();
+
+        lugarService.crearLugar("Despensa", null, grupoId, creadorId);
+
+        // Guardar la copia leida antes del lugar perderia su referencia en lugarIds
+        leido.setDescripcion("cambio");
+        assertThatThrownBy(() -> grupoFamiliarRepository.save(leido))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+    }
+
+    @Test
+    void agregarMiembrosMientrasSeCreanLugaresNoPierdeCambios() throws Exception {
+        List<String> usernames = new ArrayList<>();
+        for (int i = 0; i < MIEMBROS; i++) {
+            usernames.add(guardarUsuario("miembro" + i).getUsername());
+        }
+
+        CountDownLatch inicio = new CountDownLatch(1);
+        List<String> lugarIds = new ArrayList<>();
+        try (ExecutorService ejecutor = Executors.newFixedThreadPool(2)) {
+            Future<?> miembros = ejecutor.submit(() -> {
+                inicio.await();
+                for (String username : usernames) {
+                    grupoFamiliarService.agregarMiembro(grupoId, username, creadorId);
+                }
+                return null;
+            });
+            Future<?> lugares = ejecutor.submit(() -> {
+                inicio.await();
+                for (int i = 0; i < LUGARES; i++) {
+                    lugarIds.add(lugarService.crearLugar("Lugar " + i, null, grupoId, creadorId).getId());
+                }
+                return null;
+            });
+            inicio.countDown();
+            miembros.get();
+            lugares.get();
+        }
+
+        GrupoFamiliar grupo = grupoFamiliarRepository.findById(grupoId).orElseThrow();
+        assertThat(grupo.getLugarIds()).containsExactlyInAnyOrderElementsOf(lugarIds);
+        assertThat(grupo.getMiembros()).extracting(GrupoFamiliar.MiembroInfo::getUsername)
+                .contains("creador")
+                .containsAll(usernames)
+                .hasSize(MIEMBROS + 1);
+    }
+
+    @Test
+    void eliminarMiembroConservaLosLugares() {
+        String username = guardarUsuario("temporal").getUsername();
+        grupoFamiliarService.agregarMiembro(grupoId, username, creadorId);
+        String lugarId = lugarService.crearLugar("Despensa", null, grupoId, creadorId).getId();
+
+        grupoFamiliarService.eliminarMiembro(grupoId, username, creadorId);
+
+        GrupoFamiliar grupo = grupoFamiliarRepository.findById(grupoId).orElseThrow();
+        assertThat(grupo.getLugarIds()).containsExactly(lugarId);
+        assertThat(grupo.getMiembros()).extracting(GrupoFamiliar.MiembroInfo::getUsername).containsExactly("creador");
+    }
+
+    private User guardarUsuario(String username) {
+        User usuario = new User();
+        usuario.setId(new ObjectId().toHexString());
+        usuario.setUsername(username);
+        usuario.setEmail(username + "@pruebas.local");
+        usuario.setRole(List.of("ROLE_USER"));
+        return mongoTemplate.insert(usuario);
+    }
+}
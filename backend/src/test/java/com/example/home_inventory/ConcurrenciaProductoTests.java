@@ -0,0 +1,87 @@
+package com.example.home_inventory;
+
+import com.example.home_inventory.models.Producto;
+import com.example.home_inventory.services.ProductoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Descontar unidades de un producto desde varios hilos no pierde ningun descuento, y el producto se elimina
+ * una sola vez al llegar a la ultima unidad.
+ */
+class ConcurrenciaProductoTests extends PruebaMongoEnMemoria {
+
+    private static final int HILOS = 8;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void limpiar() {
+        mongoTemplate.dropCollection(Producto.class);
+    }
+
+    @Test
+    void descuentosConcurrentesNoSePierden() throws Exception {
+        String id = guardarProducto(50);
+
+        List<Boolean> resultados = descontarEnParalelo(id, 40);
+
+        assertThat(resultados).containsOnly(true);
+        assertThat(mongoTemplate.findById(id, Producto.class).getCantidad()).isEqualTo(10);
+    }
+
+    @Test
+    void laUltimaUnidadEliminaElProductoUnaSolaVez() throws Exception {
+        String id = guardarProducto(5);
+
+        List<Boolean> resultados = descontarEnParalelo(id, 20);
+
+        assertThat(resultados).filteredOn(descontado -> descontado).hasSize(5);
+        assertThat(mongoTemplate.findById(id, Producto.class)).isNull();
+    }
+
+    private String guardarProducto(int cantidad) {
+        Producto producto = new Producto();
+        producto.setNombre("Arroz");
+        producto.setCantidad(cantidad);
+        producto.setGrupoFamiliarId("grupo-pruebas");
+        return mongoTemplate.insert(producto).getId();
+    }
+
+    private List<Boolean> descontarEnParalelo(String id, int descuentos) throws Exception {
+        ExecutorService ejecutor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch salida = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> tareas = new ArrayList<>();
+            for (int i = 0; i < descuentos; i++) {
+                tareas.add(ejecutor.submit(() -> {
+                    salida.await();
+                    return productoService.deleteProductoById(id);
+                }));
+            }
+            salida.countDown();
+            List<Boolean> resultados = new ArrayList<>();
+            for (Future<Boolean> tarea : tareas) {
+                resultados.add(tarea.get());
+            }
+            return resultados;
+        } finally {
+            ejecutor.shutdownNow();
+        }
+    }
+}
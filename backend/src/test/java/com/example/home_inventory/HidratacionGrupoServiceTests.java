@@ -0,0 +1,91 @@
+package com.example.home_inventory;
+
+import com.example.home_inventory.models.DetalleGrupoDTO;
+import com.example.home_inventory.models.GrupoFamiliar;
+import com.example.home_inventory.models.ListaCompra;
+import com.example.home_inventory.models.Lugar;
+import com.example.home_inventory.models.Producto;
+import com.example.home_inventory.services.HidratacionGrupoService;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * El detalle del grupo solo carga y devuelve las secciones pedidas; los productos salen de su coleccion.
+ */
+class HidratacionGrupoServiceTests extends PruebaMongoEnMemoria {
+
+    @Autowired
+    private HidratacionGrupoService hidratacionGrupoService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private String usuarioId;
+
+    @BeforeEach
+    void sembrar() {
+        mongoTemplate.dropCollection(GrupoFamiliar.class);
+        mongoTemplate.dropCollection(Lugar.class);
+        mongoTemplate.dropCollection(Producto.class);
+        mongoTemplate.dropCollection(ListaCompra.class);
+
+        usuarioId = new ObjectId().toHexString();
+        GrupoFamiliar grupo = new GrupoFamiliar();
+        grupo.setNombre("Casa " + new ObjectId());
+        grupo.setFechaCreacion(LocalDateTime.now());
+        grupo.setCreadorId(usuarioId);
+        grupo.setMiembros(new ArrayList<>(List.of(new GrupoFamiliar.MiembroInfo(usuarioId, "creador", null))));
+        grupo = mongoTemplate.insert(grupo);
+
+        Lugar lugar = new Lugar();
+        lugar.setNombre("Despensa");
+        lugar.setGrupoFamiliarId(grupo.getId());
+        lugar = mongoTemplate.insert(lugar);
+
+        Producto producto = new Producto();
+        producto.setNombre("Arroz");
+        producto.setLugarId(lugar.getId());
+        producto.setGrupoFamiliarId(grupo.getId());
+        mongoTemplate.insert(producto);
+
+        grupo.setLugarIds(new ArrayList<>(List.of(lugar.getId())));
+        mongoTemplate.save(grupo);
+    }
+
+    @Test
+    void soloDevuelveLasSeccionesPedidas() {
+        DetalleGrupoDTO detalle = hidratacionGrupoService.getDetalleByUser(usuarioId, Set.of("lugares"));
+
+        assertThat(detalle.grupo().creadorId()).isEqualTo(usuarioId);
+        assertThat(detalle.lugares()).extracting(Lugar::getNombre).containsExactly("Despensa");
+        assertThat(detalle.productos()).isNull();
+        assertThat(detalle.listasCompra()).isNull();
+    }
+
+    @Test
+    void losProductosSalenDeSuColeccion() {
+        DetalleGrupoDTO detalle = hidratacionGrupoService.getDetalleByUser(usuarioId,
+                Set.of("lugares", "productos", "listas"));
+
+        assertThat(detalle.productos()).extracting(Producto::getNombre).containsExactly("Arroz");
+        assertThat(detalle.lugares()).allSatisfy(lugar -> assertThat(lugar.getProductos()).isNull());
+        assertThat(detalle.listasCompra()).isEmpty();
+    }
+
+    @Test
+    void rechazaSeccionesDesconocidas() {
+        assertThatThrownBy(() -> hidratacionGrupoService.getDetalleByUser(usuarioId, Set.of("miembros")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.home_inventory;
+
+import com.example.home_inventory.models.EventoOutbox;
+import com.example.home_inventory.models.Lugar;
+import com.example.home_inventory.models.Notificacion;
+import com.example.home_inventory.models.Producto;
+import com.example.home_inventory.models.ResultadoImportacion;
+import com.example.home_inventory.services.ImportacionProductoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * La importacion deja cada producto en su coleccion y en su lugar, no deja eventos de outbox pendientes y
+ * genera las notificaciones del lote.
+ */
+class ImportacionProductoServiceTests extends PruebaMongoEnMemoria {
+
+    private static final String GRUPO = "grupo-pruebas";
+
+    @Autowired
+    private ImportacionProductoService importacionProductoService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private String lugarId;
+
+    @BeforeEach
+    void limpiar() {
+        mongoTemplate.dropCollection(EventoOutbox.class);
+        mongoTemplate.dropCollection(Lugar.class);
+        mongoTemplate.dropCollection(Producto.class);
+        mongoTemplate.dropCollection(Notificacion.class);
+
+        Lugar lugar = new Lugar();
+        lugar.setNombre("Despensa");
+        lugar.setGrupoFamiliarId(GRUPO);
+        lugarId = mongoTemplate.insert(lugar).getId();
+    }
+
+    @Test
+    void importaProyectaYNotificaPorLotes() throws Exception {
+        String manana = LocalDate.now().plusDays(1).format(DateTimeFormatter.ofPattern("dd-MM-yyyy"));
+        String csv = "nombre,cantidad,cantidadMinima,expiracion\n"
+                + "Arroz,2,1,\n"
+                + "Leche,1,0," + manana + "\n"
+                + ",1,0,\n"
+                + "Café,3,1,\n";
+
+        ResultadoImportacion resultado = importacionProductoService.importar(GRUPO, lugarId,
+                ImportacionProductoService.FORMATO_CSV, 2, new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(resultado.insertados()).isEqualTo(3);
+        assertThat(resultado.errores()).singleElement()
+                .satisfies(error -> assertThat(error.fila()).isEqualTo(4));
+        assertThat(mongoTemplate.findById(lugarId, Lugar.class).getProductos())
+                .extracting(Producto::getNombre)
+                .containsExactlyInAnyOrder("Arroz", "Leche", "Café");
+        assertThat(mongoTemplate.findAll(EventoOutbox.class)).isEmpty();
+        assertThat(mongoTemplate.findAll(Notificacion.class)).singleElement()
+                .satisfies(notificacion -> assertThat(notificacion.getMensaje()).contains("Leche"));
+    }
+}
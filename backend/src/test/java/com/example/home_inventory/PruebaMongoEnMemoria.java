@@ -0,0 +1,40 @@
+package com.example.home_inventory;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Base de las pruebas que levantan el contexto completo sobre mongo-java-server en memoria. El servidor es
+ * unico para toda la corrida para que Spring reutilice el mismo contexto entre clases de prueba; cada prueba
+ * debe limpiar las colecciones que use.
+ */
+@SpringBootTest
+public abstract class PruebaMongoEnMemoria {
+
+    private static final MongoServer SERVIDOR = new MongoServer(new MemoryBackend());
+    private static final String URI = SERVIDOR.bindAndGetConnectionString();
+
+    @DynamicPropertySource
+    static void propiedadesMongo(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> URI);
+        registry.add("spring.data.mongodb.database", () -> "inventario-pruebas");
+        // El servidor en memoria no soporta indices parciales, transacciones ni explain
+        registry.add("spring.data.mongodb.auto-index-creation", () -> "false");
+        registry.add("inventario.transacciones.habilitadas", () -> "false");
+        registry.add("inventario.indices.verificar", () -> "false");
+        registry.add("inventario.migracion.grupos.habilitada", () -> "false");
+        registry.add("inventario.migracion.productos.habilitada", () -> "false");
+        registry.add("inventario.migracion.listas.habilitada", () -> "false");
+        registry.add("inventario.migracion.versiones.habilitada", () -> "false");
+        registry.add("inventario.metricas.embebidos.habilitadas", () -> "false");
+        // Las pruebas de concurrencia provocan mas conflictos de version que el uso normal
+        registry.add("inventario.concurrencia.intentos-maximos", () -> "10");
+        // El relay y la revision de expiraciones solo corren cuando la prueba lo pide
+        registry.add("inventario.outbox.intervalo-ms", () -> "3600000");
+        registry.add("inventario.notificaciones.retraso-inicial-ms", () -> "3600000");
+        registry.add("security.jwt.secret-key", () -> "pruebas-pruebas-pruebas-pruebas-32b");
+    }
+}
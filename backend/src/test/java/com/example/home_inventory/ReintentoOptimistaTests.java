@@ -0,0 +1,80 @@
+package com.example.home_inventory;
+
+import com.example.home_inventory.services.ReintentoOptimista;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Solo los conflictos de version se reintentan, cada uno se cuenta por operacion y tras el ultimo intento
+ * se informa al cliente y se cuenta el reintento agotado.
+ */
+class ReintentoOptimistaTests extends PruebaMongoEnMemoria {
+
+    @Autowired
+    private ReintentoOptimista reintentoOptimista;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${inventario.concurrencia.intentos-maximos}")
+    private int intentosMaximos;
+
+    @Test
+    void reintentaHastaQueNoHayConflicto() {
+        AtomicInteger llamadas = new AtomicInteger();
+
+        String resultado = reintentoOptimista.ejecutar("prueba.resuelto", () -> {
+            if (llamadas.incrementAndGet() <= 2) {
+                throw new OptimisticLockingFailureException("conflicto");
+            }
+            return "ok";
+        });
+
+        assertThat(resultado).isEqualTo("ok");
+        assertThat(llamadas).hasValue(3);
+        assertThat(contador("inventario.concurrencia.conflictos", "prueba.resuelto")).isEqualTo(2);
+        assertThat(contador("inventario.concurrencia.reintentos.agotados", "prueba.resuelto")).isZero();
+    }
+
+    @Test
+    void seRindeTrasLosIntentosMaximos() {
+        AtomicInteger llamadas = new AtomicInteger();
+
+        assertThatThrownBy(() -> reintentoOptimista.ejecutar("prueba.agotado", () -> {
+            llamadas.incrementAndGet();
+            throw new OptimisticLockingFailureException("conflicto");
+        })).isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("modificado por otra solicitud");
+
+        assertThat(llamadas).hasValue(intentosMaximos);
+        assertThat(contador("inventario.concurrencia.conflictos", "prueba.agotado")).isEqualTo(intentosMaximos);
+        assertThat(contador("inventario.concurrencia.reintentos.agotados", "prueba.agotado")).isEqualTo(1);
+    }
+
+    @Test
+    void noReintentaOtrosErrores() {
+        AtomicInteger llamadas = new AtomicInteger();
+
+        assertThatThrownBy(() -> reintentoOptimista.ejecutar("prueba.otro", () -> {
+            llamadas.incrementAndGet();
+            throw new IllegalStateException("otro error");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(llamadas).hasValue(1);
+        assertThat(contador("inventario.concurrencia.conflictos", "prueba.otro")).isZero();
+    }
+
+    private double contador(String nombre, String operacion) {
+        Counter counter = meterRegistry.find(nombre).tag("operacion", operacion).counter();
+        return counter != null ? counter.count() : 0;
+    }
+}
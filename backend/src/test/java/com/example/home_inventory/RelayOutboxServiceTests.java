@@ -0,0 +1,153 @@
+package com.example.home_inventory;
+
+import com.example.home_inventory.models.EventoOutbox;
+import com.example.home_inventory.models.Lugar;
+import com.example.home_inventory.models.Producto;
+import com.example.home_inventory.services.RelayOutboxService;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * El relay reserva cada evento antes de aplicarlo, reprograma con espera los que fallan y proyecta el estado
+ * actual del producto, por lo que repetir un evento o aplicarlo fuera de orden deja el lugar igual.
+ */
+class RelayOutboxServiceTests extends PruebaMongoEnMemoria {
+
+    @Autowired
+    private RelayOutboxService relayOutboxService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private String lugarId;
+
+    @BeforeEach
+    void limpiar() {
+        mongoTemplate.dropCollection(EventoOutbox.class);
+        mongoTemplate.dropCollection(Lugar.class);
+        mongoTemplate.dropCollection(Producto.class);
+
+        Lugar lugar = new Lugar();
+        lugar.setNombre("Despensa");
+        lugar.setGrupoFamiliarId("grupo-pruebas");
+        lugarId = mongoTemplate.insert(lugar).getId();
+    }
+
+    @Test
+    void agregaElProductoNuevoASuLugar() {
+        Producto producto = guardarProducto(3);
+        registrarEvento(producto.getId(), Instant.now());
+
+        relayOutboxService.procesarPendientes();
+
+        assertThat(productosEnLugar()).containsExactly(producto);
+        assertThat(mongoTemplate.findAll(EventoOutbox.class)).isEmpty();
+    }
+
+    @Test
+    void repetirUnEventoNoDuplicaElProducto() {
+        Producto producto = guardarProducto(3);
+        registrarEvento(producto.getId(), Instant.now());
+        relayOutboxService.procesarPendientes();
+
+        registrarEvento(producto.getId(), Instant.now());
+        registrarEvento(producto.getId(), Instant.now());
+        relayOutboxService.procesarPendientes();
+
+        assertThat(productosEnLugar()).containsExactly(producto);
+    }
+
+    @Test
+    void eventosFueraDeOrdenConvergenAlEstadoActual() {
+        Producto producto = guardarProducto(1);
+        Instant ahora = Instant.now();
+        // El evento del ultimo cambio queda antes que el del primero
+        registrarEvento(producto.getId(), ahora.minusSeconds(5));
+        producto.setCantidad(7);
+        mongoTemplate.save(producto);
+        registrarEvento(producto.getId(), ahora.minusSeconds(10));
+
+        relayOutboxService.procesarPendientes();
+
+        assertThat(productosEnLugar()).extracting(Producto::getCantidad).containsExactly(7);
+    }
+
+    @Test
+    void quitaDelLugarElProductoEliminado() {
+        Producto producto = guardarProducto(2);
+        registrarEvento(producto.getId(), Instant.now());
+        relayOutboxService.procesarPendientes();
+
+        mongoTemplate.remove(producto);
+        registrarEvento(producto.getId(), Instant.now());
+        relayOutboxService.procesarPendientes();
+
+        assertThat(productosEnLugar()).isEmpty();
+    }
+
+    @Test
+    void noProcesaUnEventoReservadoPorOtroRelay() {
+        Producto producto = guardarProducto(2);
+        Instant reservadoHasta = Instant.now().plus(Duration.ofMinutes(1));
+        mongoTemplate.insert(new EventoOutbox(null, producto.getId(), Instant.now(), reservadoHasta, 0));
+
+        relayOutboxService.procesarPendientes();
+
+        assertThat(productosEnLugar()).isEmpty();
+        assertThat(mongoTemplate.findAll(EventoOutbox.class)).singleElement()
+                .satisfies(evento -> assertThat(evento.getIntentos()).isZero());
+    }
+
+    @Test
+    void unFalloReprogramaElEventoConEspera() {
+        // Un lugar cuyo campo productos no es un arreglo hace fallar el $push
+        mongoTemplate.dropCollection(Lugar.class);
+        mongoTemplate.getCollection("Lugar").insertOne(new Document("_id", new ObjectId(lugarId))
+                .append("nombre", "Despensa")
+                .append("productos", "invalido"));
+        Producto producto = guardarProducto(2);
+        registrarEvento(producto.getId(), Instant.now());
+
+        // Mongo guarda milisegundos
+        Instant antes = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        relayOutboxService.procesarPendientes();
+
+        EventoOutbox evento = mongoTemplate.findAll(EventoOutbox.class).get(0);
+        assertThat(evento.getIntentos()).isEqualTo(1);
+        // Primer reintento: 2 segundos
+        assertThat(evento.getDisponibleDesde())
+                .isAfterOrEqualTo(antes.plusSeconds(2))
+                .isBefore(antes.plusSeconds(30));
+    }
+
+    private Producto guardarProducto(int cantidad) {
+        Producto producto = new Producto();
+        producto.setId(new ObjectId().toHexString());
+        producto.setNombre("Arroz");
+        producto.setCantidad(cantidad);
+        producto.setLugarId(lugarId);
+        producto.setGrupoFamiliarId("grupo-pruebas");
+        return mongoTemplate.insert(producto);
+    }
+
+    private void registrarEvento(String productoId, Instant fechaCreacion) {
+        mongoTemplate.insert(new EventoOutbox(null, productoId, fechaCreacion, fechaCreacion, 0));
+    }
+
+    private List<Producto> productosEnLugar() {
+        Lugar lugar = mongoTemplate.findById(lugarId, Lugar.class);
+        return lugar.getProductos() != null ? lugar.getProductos() : new ArrayList<>();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.home_inventory;
+
+import com.example.home_inventory.models.EstadoTarea;
+import com.example.home_inventory.models.Notificacion;
+import com.example.home_inventory.models.Producto;
+import com.example.home_inventory.services.NotificacionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * La revision de expiraciones retoma desde el limite guardado: cubre lo que entro en la ventana mientras la
+ * aplicacion estaba detenida sin volver a recorrer lo ya revisado.
+ */
+class RevisionExpiracionesTests extends PruebaMongoEnMemoria {
+
+    @Autowired
+    private NotificacionService notificacionService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${inventario.notificaciones.dias-aviso-expiracion}")
+    private int diasAviso;
+
+    private LocalDate hoy;
+
+    @BeforeEach
+    void limpiar() {
+        mongoTemplate.dropCollection(EstadoTarea.class);
+        mongoTemplate.dropCollection(Notificacion.class);
+        mongoTemplate.dropCollection(Producto.class);
+        hoy = LocalDate.now();
+    }
+
+    @Test
+    void retomaDesdeElLimiteGuardado() {
+        // La ultima revision, hace 3 dias, llego hasta este limite
+        LocalDate limiteAnterior = hoy.plusDays(diasAviso - 3);
+        mongoTemplate.save(new EstadoTarea("notificaciones.expiraciones", limiteAnterior));
+        guardarProducto("Revisado", limiteAnterior.minusDays(1));
+        guardarProducto("Nuevo en la ventana", limiteAnterior.plusDays(1));
+
+        notificacionService.revisarExpiraciones();
+
+        assertThat(mongoTemplate.findAll(Notificacion.class)).singleElement()
+                .satisfies(n -> assertThat(n.getMensaje()).contains("Nuevo en la ventana"));
+        assertThat(mongoTemplate.findById("notificaciones.expiraciones", EstadoTarea.class).getUltimaFecha())
+                .isEqualTo(hoy.plusDays(diasAviso));
+    }
+
+    @Test
+    void laPrimeraRevisionNoRecorreLoYaVencido() {
+        guardarProducto("Vencido", hoy.minusDays(30));
+        guardarProducto("Por vencer", hoy.plusDays(1));
+
+        notificacionService.revisarExpiraciones();
+        // Una segunda pasada el mismo dia no tiene dias nuevos que revisar
+        notificacionService.revisarExpiraciones();
+
+        assertThat(mongoTemplate.findAll(Notificacion.class)).singleElement()
+                .satisfies(n -> assertThat(n.getMensaje()).contains("Por vencer"));
+    }
+
+    private void guardarProducto(String nombre, LocalDate expiracion) {
+        Producto producto = new Producto();
+        producto.setNombre(nombre);
+        producto.setExpiracion(expiracion);
+        producto.setGrupoFamiliarId("grupo-pruebas");
+        mongoTemplate.insert(producto);
+    }
+}
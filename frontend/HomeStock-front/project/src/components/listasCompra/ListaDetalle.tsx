@@ -34,13 +34,16 @@ const ListaDetalle: React.FC<Props> = ({ lista, onListaActualizada }) => {
     }
   };
 
-  const handleEliminarProducto = async (nombre: string) => {
-    const ok = window.confirm(`¿Eliminar el producto "${nombre}" de la lista?`);
+  const handleEliminarProducto = async (producto: ProductoLista) => {
+    const ok = window.confirm(`¿Eliminar el producto "${producto.nombre}" de la lista?`);
     if (!ok) return;
     setLoading(true);
     setMessage(null);
     try {
-      const updated = await listaCompraService.eliminarProducto(localLista.id, nombre);
+      // Los elementos creados antes de tener id se siguen identificando por nombre
+      const updated = producto.id
+        ? await listaCompraService.eliminarElemento(localLista.id, producto.id)
+        : await listaCompraService.eliminarProducto(localLista.id, producto.nombre);
       setLocalLista(updated);
       setMessage('Producto eliminado');
       onListaActualizada && onListaActualizada();
@@ -51,11 +54,13 @@ const ListaDetalle: React.FC<Props> = ({ lista, onListaActualizada }) => {
     }
   };
 
-  const handleToggleComprado = async (nombre: string, comprado: boolean) => {
+  const handleToggleComprado = async (producto: ProductoLista, comprado: boolean) => {
     setLoading(true);
     setMessage(null);
     try {
-      const updated = await listaCompraService.marcarProductoComprado(localLista.id, nombre, comprado);
+      const updated = producto.id
+        ? await listaCompraService.marcarElementoComprado(localLista.id, producto.id, comprado)
+        : await listaCompraService.marcarProductoComprado(localLista.id, producto.nombre, comprado);
       setLocalLista(updated);
       setMessage(comprado ? 'Marcado como comprado' : 'Marcado como no comprado');
       onListaActualizada && onListaActualizada();
@@ -82,10 +87,10 @@ const ListaDetalle: React.FC<Props> = ({ lista, onListaActualizada }) => {
           {localLista.productosLista.length === 0 && <div className="text-sm text-gray-500">No hay productos.</div>}
           {localLista.productosLista.map((p) => (
             <ProductoItem
-              key={p.nombre}
+              key={p.id ?? p.nombre}
               producto={p}
-              onEliminar={() => handleEliminarProducto(p.nombre)}
-              onToggle={(comprado: boolean) => handleToggleComprado(p.nombre, comprado)}
+              onEliminar={() => handleEliminarProducto(p)}
+              onToggle={(comprado: boolean) => handleToggleComprado(p, comprado)}
               disabled={loading}
             />
           ))}
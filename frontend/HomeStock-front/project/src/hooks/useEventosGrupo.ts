@@ -0,0 +1,94 @@
+import { useEffect, useRef } from 'react';
+import { API_BASE_URL } from '../services/apiClient';
+
+export type EntidadEvento = 'producto' | 'lugar' | 'lista';
+
+// Solo viajan el id y los campos cambiados; si campos es null la entidad se pide al backend
+export interface EventoGrupo {
+  entidad: EntidadEvento;
+  tipo: 'creado' | 'actualizado' | 'eliminado';
+  id?: string | null;
+  ids?: string[];
+  campos?: Record<string, unknown> | null;
+}
+
+const RECONEXION_INICIAL_MS = 1000;
+const RECONEXION_MAXIMA_MS = 30000;
+
+/**
+ * Se suscribe al canal de eventos del grupo familiar (Server-Sent Events).
+ * Se usa fetch en lugar de EventSource porque el endpoint necesita el header Authorization.
+ */
+export const useEventosGrupo = (
+  entidades: EntidadEvento[],
+  onEvento: (evento: EventoGrupo) => void
+) => {
+  // Referencia al callback más reciente para no reconectar en cada render
+  const onEventoRef = useRef(onEvento);
+  onEventoRef.current = onEvento;
+  const filtro = entidades.join(',');
+
+  useEffect(() => {
+    const token = localStorage.getItem('authToken');
+    if (!token) return;
+
+    const controller = new AbortController();
+    let espera = RECONEXION_INICIAL_MS;
+    let temporizador: ReturnType<typeof setTimeout> | undefined;
+
+    const procesarBloque = (bloque: string) => {
+      let nombre = 'message';
+      const datos: string[] = [];
+      for (const linea of bloque.split('\n')) {
+        if (linea.startsWith('event:')) nombre = linea.slice(6).trim();
+        else if (linea.startsWith('data:')) datos.push(linea.slice(5).trimStart());
+      }
+      if (datos.length === 0 || !filtro.split(',').includes(nombre)) return;
+      try {
+        const cuerpo = JSON.parse(datos.join('\n'));
+        onEventoRef.current({ entidad: nombre as EntidadEvento, ...cuerpo });
+      } catch (error) {
+        console.error('Evento de grupo inválido:', error);
+      }
+    };
+
+    const conectar = async () => {
+      try {
+        const response = await fetch(`${API_BASE_URL}/grupos-familiares/mi-grupo/eventos`, {
+          headers: { Authorization: `Bearer ${token}`, Accept: 'text/event-stream' },
+          signal: controller.signal,
+        });
+        if (!response.ok || !response.body) {
+          throw new Error(`HTTP ${response.status}`);
+        }
+        espera = RECONEXION_INICIAL_MS;
+
+        const lector = response.body.pipeThrough(new TextDecoderStream()).getReader();
+        let pendiente = '';
+        for (;;) {
+          const { value, done } = await lector.read();
+          if (done) break;
+          pendiente += value.replace(/\r\n/g, '\n');
+          let fin;
+          while ((fin = pendiente.indexOf('\n\n')) >= 0) {
+            procesarBloque(pendiente.slice(0, fin));
+            pendiente = pendiente.slice(fin + 2);
+          }
+        }
+      } catch (error) {
+        if (controller.signal.aborted) return;
+        console.warn('Conexión de eventos interrumpida:', error);
+      }
+      if (!controller.signal.aborted) {
+        temporizador = setTimeout(conectar, espera);
+        espera = Math.min(espera * 2, RECONEXION_MAXIMA_MS);
+      }
+    };
+
+    conectar();
+    return () => {
+      controller.abort();
+      if (temporizador) clearTimeout(temporizador);
+    };
+  }, [filtro]);
+};
@@ -1,6 +1,7 @@
 import { useEffect, useState, useCallback } from 'react';
 import { ListaCompra, ProductoLista } from '../types/listaCompra';
 import { listaCompraService } from '../services/listaCompraService';
+import { useEventosGrupo } from './useEventosGrupo';
 
 interface UseListasCompraResult {
   listas: ListaCompra[];
@@ -137,6 +138,27 @@ export function useListasCompra(initialGrupoId?: string): UseListasCompraResult
     if (initialGrupoId) fetchListas(initialGrupoId);
   }, [initialGrupoId, fetchListas]);
 
+  // Cambios de otros miembros del grupo recibidos por el canal de eventos
+  useEventosGrupo(['lista'], async (evento) => {
+    const id = evento.id;
+    if (!id) return;
+    if (evento.tipo === 'eliminado') {
+      setListas((s) => s.filter((l) => l.id !== id));
+      setSelectedLista((s) => (s && s.id === id ? null : s));
+      return;
+    }
+    try {
+      // El evento solo trae el id; la lista actualizada se pide al backend
+      const lista = await listaCompraService.obtenerListaPorId(id);
+      setListas((s) => (s.some((l) => l.id === lista.id)
+        ? s.map((l) => (l.id === lista.id ? lista : l))
+        : [lista, ...s]));
+      setSelectedLista((s) => (s && s.id === lista.id ? lista : s));
+    } catch (err) {
+      console.error('No se pudo actualizar la lista', err);
+    }
+  });
+
   return {
     listas,
     selectedLista,
@@ -1,5 +1,6 @@
 import { useState, useEffect } from 'react';
 import { productoService, Producto, CrearProductoRequest } from '../services/productoService';
+import { useEventosGrupo } from './useEventosGrupo';
 
 interface UseProductosState {
   productos: Producto[];
@@ -30,6 +31,24 @@ export const useProductos = (): UseProductosReturn => {
     cargarProductos();
   }, []);
 
+  // Aplicar los cambios hechos por otros miembros sin volver a pedir la lista completa
+  useEventosGrupo(['producto'], (evento) => {
+    if (evento.tipo === 'eliminado') {
+      setState(prev => ({ ...prev, productos: prev.productos.filter(p => p.id !== evento.id) }));
+      return;
+    }
+    if (evento.tipo === 'actualizado' && evento.campos) {
+      const campos = evento.campos as Partial<Producto>;
+      setState(prev => ({
+        ...prev,
+        productos: prev.productos.map(p => (p.id === evento.id ? { ...p, ...campos } : p)),
+      }));
+      return;
+    }
+    // Productos nuevos: no hay endpoint por id, se recarga la lista
+    cargarProductos();
+  });
+
   const cargarProductos = async () => {
     try {
       setState(prev => ({ ...prev, isLoading: true, error: null }));
@@ -254,7 +254,9 @@ class AuthService {
       return response.data;
     } catch (error: any) {
       console.error('Error en registro:', error);
-      throw new Error(error.response?.data?.message || 'Error al registrar usuario');
+      // 409 con el mensaje en texto plano cuando el nombre de usuario ya existe
+      const mensaje = typeof error.response?.data === 'string' ? error.response.data : error.response?.data?.message;
+      throw new Error(mensaje || 'Error al registrar usuario');
     }
   }
 
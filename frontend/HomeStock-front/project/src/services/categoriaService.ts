@@ -6,6 +6,9 @@ const API_BASE_URL = 'https://home-inventory-58978808961.northamerica-south1.run
 
 class CategoriaService {
   private readonly endpoint = '/categorias';
+  // El backend permite guardar las categorías en la caché HTTP del navegador; después de un cambio
+  // se agrega este valor a la URL para no recibir la copia anterior
+  private ultimaModificacion: number | null = null;
   private client = axios.create({
     baseURL: API_BASE_URL,
     headers: {
@@ -32,7 +35,8 @@ class CategoriaService {
    */
   async obtenerCategorias(): Promise<Categoria[]> {
     try {
-      const response = await this.client.get<Categoria[]>(this.endpoint);
+      const params = this.ultimaModificacion ? { v: this.ultimaModificacion } : undefined;
+      const response = await this.client.get<Categoria[]>(this.endpoint, { params });
       return response.data;
     } catch (error: any) {
       console.error('Error al obtener categorías:', error);
@@ -49,6 +53,7 @@ class CategoriaService {
   async crearCategoria(data: CrearCategoriaRequest): Promise<Categoria> {
     try {
       const response = await this.client.post<Categoria>(this.endpoint, data);
+      this.ultimaModificacion = Date.now();
       return response.data;
     } catch (error: any) {
       console.error('Error al crear categoría:', error);
@@ -76,6 +81,7 @@ class CategoriaService {
       // Normalizar el nombre para enviar al backend
       const nombreNormalizado = nombre.toLowerCase().trim();
       await this.client.delete(`${this.endpoint}/${encodeURIComponent(nombreNormalizado)}`);
+      this.ultimaModificacion = Date.now();
     } catch (error: any) {
       console.error('Error al eliminar categoría:', error);
       
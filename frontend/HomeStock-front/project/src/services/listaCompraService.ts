@@ -95,4 +95,23 @@ export const listaCompraService = {
       throw handleAxiosError(error);
     }
   },
+
+  async eliminarElemento(listaId: string, elementoId: string): Promise<ListaCompra> {
+    try {
+      const { data } = await client.delete<ListaCompra>(`/listas-compra/${listaId}/elementos/${elementoId}`);
+      return data;
+    } catch (error) {
+      throw handleAxiosError(error);
+    }
+  },
+
+  async marcarElementoComprado(listaId: string, elementoId: string, comprado: boolean): Promise<ListaCompra> {
+    try {
+      const body = { comprado };
+      const { data } = await client.patch<ListaCompra>(`/listas-compra/${listaId}/elementos/${elementoId}/comprado`, body);
+      return data;
+    } catch (error) {
+      throw handleAxiosError(error);
+    }
+  },
 };
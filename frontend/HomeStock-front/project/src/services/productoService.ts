@@ -2,6 +2,9 @@ import axios from 'axios';
 
 const API_BASE_URL = 'https://home-inventory-58978808961.northamerica-south1.run.app/api/v1/productos';
 
+// Tamaño máximo de página que acepta el backend
+const LIMITE_PAGINA = 200;
+
 // Interfaces para productos
 export interface Categoria {
   id: string;
@@ -26,6 +29,11 @@ export interface CrearProductoRequest {
   expiracion?: string; // Formato dd-MM-yyyy
 }
 
+export interface PaginaProductos {
+  productos: Producto[];
+  siguienteCursor: string | null;
+}
+
 export interface AsignarCategoriaRequest {
   categoria: string;
 }
@@ -86,16 +94,24 @@ class ProductoService {
   }
 
   /**
-   * ENDPOINT 2: Obtener todos los productos
+   * ENDPOINT 2: Obtener todos los productos del grupo, recorriendo las páginas con el cursor
    */
   async obtenerTodosLosProductos(): Promise<Producto[]> {
     try {
       console.log('🔄 Obteniendo todos los productos');
-      
-      const response = await axios.get<Producto[]>(API_BASE_URL);
-      
-      console.log('✅ Productos obtenidos:', response.data.length);
-      return response.data;
+
+      const productos: Producto[] = [];
+      let cursor: string | null = null;
+      do {
+        const response: { data: PaginaProductos } = await axios.get<PaginaProductos>(API_BASE_URL, {
+          params: { limite: LIMITE_PAGINA, ...(cursor ? { cursor } : {}) },
+        });
+        productos.push(...response.data.productos);
+        cursor = response.data.siguienteCursor;
+      } while (cursor);
+
+      console.log('✅ Productos obtenidos:', productos.length);
+      return productos;
     } catch (error: any) {
       console.error('❌ Error obteniendo productos:', error);
       const errorMessage = error.response?.data || 'Error al obtener los productos';
@@ -1,4 +1,5 @@
 export interface ProductoLista {
+  id?: string;
   nombre: string;
   cantidad?: string;
   unidad?: string;